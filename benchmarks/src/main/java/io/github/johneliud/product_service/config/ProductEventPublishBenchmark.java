@@ -0,0 +1,102 @@
+package io.github.johneliud.product_service.config;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishing of keyed product events with the producer settings from {@link KafkaProducerConfig},
+ * against an in-process KRaft broker. Each invocation sends one outbox batch keyed by productId and
+ * waits for every acknowledgement, as {@code OutboxRelay} does, so the score is acknowledged records
+ * per second. {@code partitions=1, acks=1} is the previous setup; the broker runs on the same host, so
+ * compare the settings against each other rather than reading the numbers as production throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductEventPublishBenchmark {
+    private static final String TOPIC = "product-deleted";
+    private static final int BATCH = 500;
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"1", "6"})
+    private int partitions;
+
+    @Param({"1", "all"})
+    private String acks;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private KafkaProducer<String, String> producer;
+    private String[] keys;
+    private String[] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, partitions, TOPIC);
+        broker.afterPropertiesSet();
+
+        KafkaProducerConfig config = new KafkaProducerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "acks", acks);
+        ReflectionTestUtils.setField(config, "compressionType", "lz4");
+        ReflectionTestUtils.setField(config, "lingerMs", 20);
+        ReflectionTestUtils.setField(config, "batchSize", 65536);
+        Map<String, Object> producerConfig = config.producerConfig();
+        producerConfig.put(ProducerConfig.CLIENT_ID_CONFIG, "publish-benchmark");
+        producer = new KafkaProducer<>(producerConfig);
+
+        keys = new String[PRODUCTS];
+        payloads = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            keys[i] = String.format("6650c0ffee%014d", i);
+            payloads[i] = "{\"productId\":\"" + keys[i] + "\",\"userId\":\"seller-" + i % 100 + "\"}";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RecordMetadata sendBatch() throws ExecutionException, InterruptedException {
+        @SuppressWarnings("unchecked")
+        Future<RecordMetadata>[] sends = new Future[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            sends[i] = producer.send(new ProducerRecord<>(TOPIC, keys[next], payloads[next]));
+            next = (next + 1) % PRODUCTS;
+        }
+        RecordMetadata last = null;
+        for (Future<RecordMetadata> send : sends) {
+            last = send.get();
+        }
+        return last;
+    }
+}
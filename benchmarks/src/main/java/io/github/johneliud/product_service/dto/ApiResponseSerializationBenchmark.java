@@ -0,0 +1,71 @@
+package io.github.johneliud.product_service.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a listing response, {@code ApiResponse<PagedResponse<ProductResponse>>}, for
+ * full and summary products at typical page sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private ApiResponse<PagedResponse<ProductResponse>> fullPage;
+    private ApiResponse<PagedResponse<ProductResponse>> summaryPage;
+
+    @Setup
+    public void setUp() {
+        writer = JsonMapper.builder().build().writer();
+        List<ProductResponse> full = new ArrayList<>(pageSize);
+        List<ProductResponse> summary = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            String id = String.format("6650c0ffee%014d", i);
+            BigDecimal price = new BigDecimal("19.99").add(BigDecimal.valueOf(i));
+            full.add(new ProductResponse(id, "Product " + i, "Description of product " + i + " with some detail",
+                    price, i % 50, "seller-" + (i % 7), "Electronics", (long) i));
+            summary.add(new ProductResponse(id, "Product " + i, null, price, i % 50, null, null, (long) i));
+        }
+        fullPage = page(full);
+        summaryPage = page(summary);
+    }
+
+    private ApiResponse<PagedResponse<ProductResponse>> page(List<ProductResponse> content) {
+        return new ApiResponse<>(true, "Products retrieved successfully",
+                new PagedResponse<>(content, 0, pageSize, 1000, 1000 / pageSize, false, "bmV4dA"));
+    }
+
+    @Benchmark
+    public byte[] serializeFullPage() {
+        return writer.writeValueAsBytes(fullPage);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryPage() {
+        return writer.writeValueAsBytes(summaryPage);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.johneliud.product_service.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization done by {@link OrderStatusChangedEventListener} for each record: the
+ * {@code newStatus} peek that filters out events other than {@code DELIVERED}, and the full read of
+ * the delivered ones. The {@code baseline*} methods are the previous path, which decoded every
+ * payload to a {@code String} and bound it in full before looking at the status.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderStatusChangedEventBenchmark {
+
+    @Param({"1", "20"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private OrderStatusChangedEventDecoder decoder;
+    private byte[] delivered;
+    private byte[] shipped;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().build();
+        decoder = new OrderStatusChangedEventDecoder(objectMapper);
+        delivered = payload("SHIPPED", "DELIVERED");
+        shipped = payload("PENDING", "SHIPPED");
+    }
+
+    /** Items precede the status, as the order service sends them, so peeking has to skip them. */
+    private byte[] payload(String oldStatus, String newStatus) {
+        StringBuilder json = new StringBuilder("{\"orderId\":\"order-1\",\"userId\":\"user-1\",\"sellerId\":\"seller-1\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"productId\":\"product-").append(i)
+                    .append("\",\"productName\":\"Product ").append(i)
+                    .append("\",\"price\":19.99,\"quantity\":").append(i % 5 + 1).append('}');
+        }
+        json.append("],\"oldStatus\":\"").append(oldStatus)
+                .append("\",\"newStatus\":\"").append(newStatus).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String peekSkippedStatus() {
+        return decoder.peekStatus(shipped);
+    }
+
+    @Benchmark
+    public OrderStatusChangedEvent peekAndReadDelivered() {
+        return "DELIVERED".equals(decoder.peekStatus(delivered)) ? decoder.read(delivered) : null;
+    }
+
+    @Benchmark
+    public OrderStatusChangedEvent baselineSkippedStatus() {
+        return baseline(shipped);
+    }
+
+    @Benchmark
+    public OrderStatusChangedEvent baselineDelivered() {
+        return baseline(delivered);
+    }
+
+    private OrderStatusChangedEvent baseline(byte[] payload) {
+        OrderStatusChangedEvent event = objectMapper.readValue(new String(payload, StandardCharsets.UTF_8),
+                OrderStatusChangedEvent.class);
+        return "DELIVERED".equals(event.getNewStatus()) ? event : null;
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.johneliud.product_service.exception;
+
+import io.github.johneliud.product_service.dto.ErrorResponse;
+import io.github.johneliud.product_service.dto.ProductRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error paths of {@link GlobalExceptionHandler}, including creating the exception as the services do.
+ * Logging is switched off by the benchmark's logback configuration, so only the level checks remain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private MethodArgumentNotValidException validationException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new ProductRequest(), "productRequest");
+        bindingResult.rejectValue("name", "NotBlank", "Product name is required");
+        bindingResult.rejectValue("price", "NotNull", "Price is required");
+        bindingResult.rejectValue("quantity", "Min", "Quantity must be non-negative");
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("validated", ProductRequest.class), 0);
+        validationException = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @SuppressWarnings("unused")
+    private void validated(ProductRequest request) {
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> notFound() {
+        return handler.handleIllegalArgumentException(new IllegalArgumentException("Product not found"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> validationFailed() {
+        return handler.handleValidationExceptions(validationException);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> preconditionFailed() {
+        return handler.handlePreconditionFailedException(
+                new PreconditionFailedException("Product has been modified by another request"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> databaseUnavailable() {
+        return handler.handleDataAccessResourceFailureException(
+                new DataAccessResourceFailureException("Timed out while waiting for a connection"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> unexpectedError() {
+        return handler.handleRuntimeException(new IllegalStateException("Unexpected state"));
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.johneliud.product_service.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a listing request into its MongoDB query: {@link ProductQueries#buildFilterQuery}
+ * alone, with keyset criteria, and the whole {@link ProductListing} including sort and projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductQueriesBenchmark {
+    private final ProductFilter unfiltered = new ProductFilter(null, null, null, null, false, null);
+    private final ProductFilter filtered = new ProductFilter(
+            null, new BigDecimal("10.00"), new BigDecimal("250.00"), "Electronics", true, "seller-42");
+    private final ProductFilter search = new ProductFilter(
+            "wireless headphones", null, new BigDecimal("250.00"), null, true, null);
+    private final PageCursor cursor = new PageCursor("price", Sort.Direction.ASC, new BigDecimal("99.99"),
+            "6650c0ffee0000000000002a");
+    private final String encodedCursor = cursor.encode();
+
+    @Benchmark
+    public Query buildFilterQueryUnfiltered() {
+        return ProductQueries.buildFilterQuery(unfiltered);
+    }
+
+    @Benchmark
+    public Query buildFilterQueryFiltered() {
+        return ProductQueries.buildFilterQuery(filtered);
+    }
+
+    @Benchmark
+    public Query buildFilterQuerySearch() {
+        return ProductQueries.buildFilterQuery(search);
+    }
+
+    @Benchmark
+    public Query buildFilterQueryKeyset() {
+        return ProductQueries.buildFilterQuery(filtered, ProductQueries.keysetCriteria(cursor));
+    }
+
+    @Benchmark
+    public Query listingWithCursor() {
+        return ProductListing.of(filtered, 0, 20, "price", "asc", encodedCursor, true, null).pageQuery();
+    }
+
+    @Benchmark
+    public Query listingSearchByRelevance() {
+        return ProductListing.of(search, 2, 20, null, "asc", null, true, "full").pageQuery();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of stored products to responses: {@link ProductService#toProductResponse} for single products
+ * and {@link ProductFields#toResponse} with the summary view used by listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductResponseBenchmark {
+    // toProductResponse uses none of the collaborators
+    private final ProductService productService = new ProductService(null, null, null, null, null);
+    private final Product product = new Product("6650c0ffee0000000000002a", "Wireless Headphones",
+            "Over-ear Bluetooth headphones with active noise cancelling", new BigDecimal("149.99"), 42,
+            "seller-42", "Electronics", 7L, false);
+    private final Set<String> summary = ProductFields.parse(null);
+
+    @Benchmark
+    public ProductResponse toProductResponse() {
+        return productService.toProductResponse(product);
+    }
+
+    @Benchmark
+    public ProductResponse toSummaryResponse() {
+        return ProductFields.toResponse(product, summary);
+    }
+
+    @Benchmark
+    public Set<String> parseFields() {
+        return ProductFields.parse("name,price,category");
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.ProductRequest;
+import io.github.johneliud.product_service.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Product update and delete before and after they became single conditional operations. The
+ * {@code readThen*} methods are the previous path: read the product, check the owner in the service,
+ * then write by {@code _id}. The {@code conditional*} methods issue the one {@code findAndModify} or
+ * {@code deleteOne} that {@link ProductService} now sends, with {@code userId} in the predicate.
+ * {@code roundTripMicros=0} isolates the client-side mapping; a non-zero value adds a fixed, simulated
+ * round trip per call. With a stand-in instead of a server, the difference between the two paths is
+ * one round trip by construction: the benchmark counts round trips and mapping cost, it does not
+ * measure server latency. The outbox insert that now precedes a delete is left out, as it belongs to
+ * a separate change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductWritePathBenchmark {
+    private static final String PRODUCT_ID = "6650c0ffee0000000000002a";
+    private static final String SELLER_ID = "seller-42";
+
+    @Param({"0", "500"})
+    private long roundTripMicros;
+
+    private RoundTripMongoTemplate mongoTemplate;
+    private ProductRequest request;
+
+    @Setup
+    public void setUp() {
+        mongoTemplate = new RoundTripMongoTemplate(new Product(PRODUCT_ID, "Wireless Headphones",
+                "Over-ear Bluetooth headphones with active noise cancelling", new BigDecimal("149.99"), 42,
+                SELLER_ID, "Electronics", 7L, false), Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros)));
+        request = new ProductRequest("Wireless Headphones II",
+                "Over-ear Bluetooth headphones with adaptive noise cancelling", new BigDecimal("159.99"), 40, "Electronics");
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoTemplate.close();
+    }
+
+    @Benchmark
+    public Product readThenSave() {
+        Product product = mongoTemplate.findById(PRODUCT_ID, Product.class);
+        if (product == null || !SELLER_ID.equals(product.getUserId())) {
+            throw new IllegalArgumentException("You do not have permission to update this product");
+        }
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        product.setPrice(request.getPrice());
+        product.setQuantity(request.getQuantity());
+        product.setCategory(request.getCategory());
+        return mongoTemplate.save(product);
+    }
+
+    @Benchmark
+    public Product conditionalUpdate() {
+        Update update = new Update()
+                .set("name", request.getName())
+                .set("description", request.getDescription())
+                .set("price", request.getPrice())
+                .set("quantity", request.getQuantity())
+                .set("category", request.getCategory())
+                .set(ProductService.SNAPSHOT_PENDING_FIELD, true)
+                .inc(ProductService.VERSION_FIELD, 1);
+        return mongoTemplate.findAndModify(ownedProduct(), update, FindAndModifyOptions.options().returnNew(true),
+                Product.class);
+    }
+
+    @Benchmark
+    public long readThenDelete() {
+        Product product = mongoTemplate.findById(PRODUCT_ID, Product.class);
+        if (product == null || !SELLER_ID.equals(product.getUserId())) {
+            throw new IllegalArgumentException("You do not have permission to delete this product");
+        }
+        return mongoTemplate.remove(query(where("_id").is(PRODUCT_ID)), Product.class).getDeletedCount();
+    }
+
+    @Benchmark
+    public long conditionalDelete() {
+        return mongoTemplate.remove(ownedProduct(), Product.class).getDeletedCount();
+    }
+
+    private static Query ownedProduct() {
+        return query(where("_id").is(PRODUCT_ID).and("userId").is(SELLER_ID));
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.result.DeleteResult;
+import io.github.johneliud.product_service.models.Product;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-product stand-in for MongoDB used by the write-path benchmarks. Every call maps its query,
+ * update and documents with the template's real converter, as the driver path would, then parks for
+ * the fixed {@code roundTrip} in place of the network. Writes are applied to the held document but
+ * deletes are not, so every benchmark invocation finds the product. Server-side work (index lookups,
+ * document locking, journaling) is not modelled, so timings only reflect the number of round trips.
+ */
+class RoundTripMongoTemplate extends MongoTemplate {
+    private final MongoClient client;
+    private final Duration roundTrip;
+    private final QueryMapper queryMapper;
+    private final UpdateMapper updateMapper;
+    private final MongoPersistentEntity<?> productEntity;
+    private Document stored;
+
+    RoundTripMongoTemplate(Product product, Duration roundTrip) {
+        // The client is never used for data, but it does start background monitoring of localhost:27017,
+        // which keeps retrying until close() is called
+        this(MongoClients.create("mongodb://localhost:27017"), product, roundTrip);
+    }
+
+    private RoundTripMongoTemplate(MongoClient client, Product product, Duration roundTrip) {
+        super(client, "benchmarks");
+        this.client = client;
+        this.roundTrip = roundTrip;
+        this.queryMapper = new QueryMapper(getConverter());
+        this.updateMapper = new UpdateMapper(getConverter());
+        this.productEntity = getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+        this.stored = write(product);
+    }
+
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass) {
+        roundTrip();
+        return getConverter().read(entityClass, new Document(stored));
+    }
+
+    @Override
+    public <T> T save(T objectToSave) {
+        roundTrip();
+        stored = write(objectToSave);
+        return objectToSave;
+    }
+
+    @Override
+    public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options, Class<T> entityClass) {
+        queryMapper.getMappedObject(query.getQueryObject(), productEntity);
+        Document mapped = updateMapper.getMappedObject(update.getUpdateObject(), productEntity);
+        roundTrip();
+        Document updated = new Document(stored);
+        for (Map.Entry<String, Object> set : mapped.get("$set", Document.class).entrySet()) {
+            updated.put(set.getKey(), set.getValue());
+        }
+        mapped.get("$inc", new Document()).forEach((field, by) ->
+                updated.put(field, ((Number) updated.get(field, 0L)).longValue() + ((Number) by).longValue()));
+        Document previous = stored;
+        stored = updated;
+        return getConverter().read(entityClass, options.isReturnNew() ? updated : previous);
+    }
+
+    @Override
+    public DeleteResult remove(Query query, Class<?> entityClass) {
+        queryMapper.getMappedObject(query.getQueryObject(), productEntity);
+        roundTrip();
+        return DeleteResult.acknowledged(1);
+    }
+
+    void close() {
+        client.close();
+    }
+
+    private Document write(Object entity) {
+        Document document = new Document();
+        getConverter().write(entity, document);
+        return document;
+    }
+
+    private void roundTrip() {
+        if (!roundTrip.isZero()) {
+            LockSupport.parkNanos(roundTrip.toNanos());
+        }
+    }
+}
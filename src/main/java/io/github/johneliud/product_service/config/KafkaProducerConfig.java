@@ -1,6 +1,5 @@
 package io.github.johneliud.product_service.config;
 
-import io.github.johneliud.product_service.event.ProductDeletedEvent;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +8,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,21 +18,47 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Value("${product.kafka.producer.acks:all}")
+    private String acks;
+
+    @Value("${product.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${product.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${product.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    /**
+     * Values are the JSON payloads stored in the outbox, sent as-is. The outbox relay hands whole
+     * batches to the producer, so a short linger lets records share compressed producer batches.
+     * Idempotence keeps retried batches from being duplicated or reordered within a partition, which
+     * together with productId keys preserves the order of each product's events.
+     */
     @Bean
-    public ProducerFactory<String, ProductDeletedEvent> producerFactory() {
+    public ProducerFactory<String, String> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfig());
+    }
+
+    Map<String, Object> producerConfig() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        config.put(ProducerConfig.ACKS_CONFIG, "1");
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "all".equals(acks) || "-1".equals(acks));
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
-        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(config);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        return config;
     }
 
     @Bean
-    public KafkaTemplate<String, ProductDeletedEvent> kafkaTemplate(ProducerFactory<String, ProductDeletedEvent> producerFactory) {
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
 }
@@ -1,18 +1,51 @@
 package io.github.johneliud.product_service.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import java.time.Duration;
+
 @Configuration
 public class KafkaTopicConfig {
 
+    @Value("${product.kafka.topics.partitions:6}")
+    private int partitions;
+
+    @Value("${product.kafka.topics.replicas:1}")
+    private int replicas;
+
+    @Value("${product.kafka.topics.snapshots.tombstone-retention:7d}")
+    private Duration snapshotTombstoneRetention;
+
+    /**
+     * Records are keyed by productId, so events of one product stay in order on one partition while
+     * consumers can scale out to one thread per partition. Kafka only ever adds partitions to an
+     * existing topic, which remaps keys; raise the count before consumers rely on per-key order.
+     */
     @Bean
     public NewTopic productDeletedTopic() {
         return TopicBuilder.name("product-deleted")
-                .partitions(1)
-                .replicas(1)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    /**
+     * Latest {@code ProductResponse} per productId for downstream replicas. Compaction keeps the
+     * newest snapshot of every product; tombstones of deleted products are kept for
+     * {@code delete.retention.ms} so that replicas catching up still see the delete.
+     */
+    @Bean
+    public NewTopic productSnapshotsTopic() {
+        return TopicBuilder.name("product-snapshots")
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, Long.toString(snapshotTombstoneRetention.toMillis()))
                 .build();
     }
 }
@@ -1,10 +1,48 @@
 package io.github.johneliud.product_service.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoAuditing
 @EnableMongoRepositories(basePackages = "io.github.johneliud.product_service.repositories")
-public class MongoConfig {}
\ No newline at end of file
+public class MongoConfig {
+
+    /**
+     * Stores {@code BigDecimal} values such as product prices as Decimal128 so that range filters and
+     * sorts compare numerically and can use an index. Legacy string values are still read back.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(adapter ->
+                adapter.bigDecimal(MongoCustomConversions.BigDecimalRepresentation.DECIMAL128));
+    }
+
+    /**
+     * The connection pool bounds how many requests talk to MongoDB at once. With virtual threads the
+     * number of waiting requests is no longer bounded by a thread pool, so a request that cannot get a
+     * connection within {@code product.mongo.pool.max-wait-time} fails fast (503) instead of queueing.
+     *
+     * <p>The reactive driver gets its own {@code MongoClient} with the same settings, so with
+     * {@code product.reactive.enabled} the service can open up to twice {@code max-size} connections.
+     * Its pool connects lazily and stays empty while the reactive read API is disabled.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoConnectionPoolCustomizer(
+            @Value("${product.mongo.pool.max-size:100}") int maxSize,
+            @Value("${product.mongo.pool.max-connecting:2}") int maxConnecting,
+            @Value("${product.mongo.pool.max-wait-time:2s}") Duration maxWaitTime) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.johneliud.product_service.config;
+
+import io.github.johneliud.product_service.controllers.ReactiveProductRoutes;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.JacksonJsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serves the non-blocking read API of {@link ReactiveProductRoutes} from a Reactor Netty server on
+ * {@code product.reactive.port}, next to the Tomcat server that runs the MVC controllers. A handful of
+ * event-loop threads serve every connection, so slow clients of high-fan-out reads do not each hold a
+ * thread. Only started when {@code product.reactive.enabled} is true.
+ */
+@Component
+@Slf4j
+public class ReactiveReadServer {
+    private final ReactiveProductRoutes routes;
+    private final JsonMapper jsonMapper;
+    private DisposableServer server;
+
+    @Value("${product.reactive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.reactive.port:8090}")
+    private int port;
+
+    public ReactiveReadServer(ReactiveProductRoutes routes, JsonMapper jsonMapper) {
+        this.routes = routes;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("Reactive read API disabled (product.reactive.enabled=false)");
+            return;
+        }
+        // Serialize with the application's mapper so that both APIs render products identically
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jacksonJsonEncoder(new JacksonJsonEncoder(jsonMapper)))
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(routes.routes(), strategies);
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        log.info("Reactive read API listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        DisposableServer current = server;
+        if (current != null) {
+            current.disposeNow();
+        }
+    }
+}
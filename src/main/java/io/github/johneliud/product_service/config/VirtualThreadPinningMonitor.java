@@ -0,0 +1,85 @@
+package io.github.johneliud.product_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside native
+ * code, for longer than {@code product.virtual-threads.pinned-threshold}. A pinned virtual thread
+ * holds its carrier, so frequent pinning shrinks the effective number of carrier threads. Listens to
+ * the JDK Flight Recorder {@code jdk.VirtualThreadPinned} event and is only active in virtual-thread mode.
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final Counter pinnedEvents;
+    private RecordingStream stream;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${product.virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedEvents = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the configured threshold")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!virtualThreads) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Watching for virtual threads pinned longer than {}", threshold);
+        } catch (Exception e) {
+            log.warn("Virtual thread pinning detection unavailable: {}", e.getMessage());
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        log.warn("Virtual thread pinned for {} at {}", event.getDuration(), topFrames(event));
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown location";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
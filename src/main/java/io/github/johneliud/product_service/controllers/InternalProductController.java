@@ -1,6 +1,10 @@
 package io.github.johneliud.product_service.controllers;
 
 import io.github.johneliud.product_service.dto.ApiResponse;
+import io.github.johneliud.product_service.dto.BatchStockUpdateRequest;
+import io.github.johneliud.product_service.dto.BatchStockUpdateResponse;
+import io.github.johneliud.product_service.dto.ProductBatchRequest;
+import io.github.johneliud.product_service.dto.ProductBatchResponse;
 import io.github.johneliud.product_service.dto.StockUpdateRequest;
 import io.github.johneliud.product_service.services.ProductService;
 import jakarta.validation.Valid;
@@ -17,6 +21,14 @@ public class InternalProductController {
 
     private final ProductService productService;
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<ProductBatchResponse>> getProductsBatch(
+            @Valid @RequestBody ProductBatchRequest request) {
+        log.info("POST /internal/products/batch - ids: {}", request.getIds().size());
+        ProductBatchResponse response = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", response));
+    }
+
     @PatchMapping("/{id}/stock")
     public ResponseEntity<ApiResponse<Void>> decrementStock(
             @PathVariable String id,
@@ -25,4 +37,15 @@ public class InternalProductController {
         productService.decrementStock(id, request.getQuantity());
         return ResponseEntity.ok(new ApiResponse<>(true, "Stock updated successfully", null));
     }
+
+    @PatchMapping("/stock")
+    public ResponseEntity<ApiResponse<BatchStockUpdateResponse>> decrementStockBatch(
+            @Valid @RequestBody BatchStockUpdateRequest request) {
+        log.info("PATCH /internal/products/stock - items: {}, ordered: {}", request.getItems().size(), request.isOrdered());
+        BatchStockUpdateResponse response = productService.decrementStockBatch(request.getItems(), request.isOrdered());
+        boolean allApplied = response.getResults().stream()
+                .allMatch(result -> result.getStatus() == BatchStockUpdateResponse.Status.APPLIED);
+        String message = allApplied ? "Stock updated successfully" : "Stock partially updated";
+        return ResponseEntity.ok(new ApiResponse<>(allApplied, message, response));
+    }
 }
@@ -1,15 +1,29 @@
 package io.github.johneliud.product_service.controllers;
 
 import io.github.johneliud.product_service.dto.ApiResponse;
+import io.github.johneliud.product_service.dto.BulkProductResponse;
+import io.github.johneliud.product_service.dto.BulkProductUpdateRequest;
 import io.github.johneliud.product_service.dto.ProductRequest;
 import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.dto.ProductSelection;
+import io.github.johneliud.product_service.services.ProductBulkService;
+import io.github.johneliud.product_service.services.ProductExportService;
+import io.github.johneliud.product_service.services.ProductFileFormat;
+import io.github.johneliud.product_service.services.ProductImportService;
 import io.github.johneliud.product_service.services.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/products")
@@ -17,6 +31,9 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class ProductController {
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductBulkService productBulkService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<ProductResponse>> createProduct(
@@ -49,30 +66,73 @@ public class ProductController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) java.math.BigDecimal minPrice,
             @RequestParam(required = false) java.math.BigDecimal maxPrice,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "false") boolean availableOnly,
-            @RequestParam(required = false) String sellerId) {
+            @RequestParam(required = false) String sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
 
         log.info("GET /api/products - Get all products request with filters");
 
         io.github.johneliud.product_service.dto.PagedResponse<ProductResponse> products =
             productService.getAllProductsPaged(page, size, search, minPrice, maxPrice, sortBy, sortDir,
-                    category, availableOnly, sellerId);
+                    category, availableOnly, sellerId, cursor, includeTotal, fields);
+
+        String etag = ProductETags.of(products, fields);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("GET /api/products - Not modified");
+            return notModified(etag);
+        }
 
         log.info("GET /api/products - Retrieved {} products", products.getContent().size());
-        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .body(new ApiResponse<>(true, "Products retrieved successfully", products));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = "X-User-Id", required = false) String userId,
+            @RequestHeader(value = "X-User-Role", required = false) String role,
+            InputStream body) throws IOException {
+
+        if (userId == null || role == null) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can import products");
+        }
+
+        log.info("POST /api/products/import - Import products as {} for userId: {}", format, userId);
+
+        StreamingResponseBody report = productImportService.importProducts(userId, ProductFileFormat.from(format), body);
+        return ResponseEntity.ok()
+            .contentType(ProductFileFormat.NDJSON.mediaType())
+            .body(report);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<ProductResponse>> getProductById(@PathVariable String id, WebRequest webRequest) {
         log.info("GET /api/products/{} - Get product by ID request", id);
         
         ProductResponse productResponse = productService.getProductById(id);
+
+        String etag = ProductETags.of(productResponse);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("GET /api/products/{} - Not modified", id);
+            return notModified(etag);
+        }
         
         log.info("GET /api/products/{} - Product retrieved successfully", id);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Product retrieved successfully", productResponse));
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .body(new ApiResponse<>(true, "Product retrieved successfully", productResponse));
     }
 
     @PutMapping("/{id}")
@@ -80,18 +140,22 @@ public class ProductController {
             @PathVariable String id,
             @Valid @RequestBody ProductRequest request,
             @RequestHeader("X-User-Id") String userId,
-            @RequestHeader("X-User-Role") String role) {
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         if (!role.equals("SELLER")) {
             throw new IllegalArgumentException("Only sellers can update products");
         }
         
-        log.info("PUT /api/products/{} - Update product request by userId: {}", id, userId);
+        log.info("PUT /api/products/{} - Update product request by userId: {}, If-Match: {}", id, userId, ifMatch);
         
-        ProductResponse productResponse = productService.updateProduct(id, request, userId);
+        ProductResponse productResponse = productService.updateProduct(id, request, userId,
+                ProductETags.expectedVersion(ifMatch));
         
         log.info("PUT /api/products/{} - Product updated successfully", id);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Product updated successfully", productResponse));
+        return ResponseEntity.ok()
+            .eTag(ProductETags.of(productResponse))
+            .body(new ApiResponse<>(true, "Product updated successfully", productResponse));
     }
 
     @DeleteMapping("/{id}")
@@ -112,6 +176,42 @@ public class ProductController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Product deleted successfully", null));
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkProductResponse>> bulkUpdateProducts(
+            @Valid @RequestBody BulkProductUpdateRequest request,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can update products");
+        }
+
+        log.info("PATCH /api/products/bulk - Bulk update request by userId: {}", userId);
+
+        BulkProductResponse response = productBulkService.updateProducts(userId, request);
+
+        log.info("PATCH /api/products/bulk - Modified {} products", response.getModifiedCount());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products updated successfully", response));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ApiResponse<BulkProductResponse>> bulkDeleteProducts(
+            @Valid @RequestBody ProductSelection selection,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can delete products");
+        }
+
+        log.info("POST /api/products/bulk/delete - Bulk delete request by userId: {}", userId);
+
+        BulkProductResponse response = productBulkService.deleteProducts(userId, selection);
+
+        log.info("POST /api/products/bulk/delete - Deleted {} products", response.getModifiedCount());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Products deleted successfully", response));
+    }
+
     @GetMapping("/my-products")
     public ResponseEntity<ApiResponse<io.github.johneliud.product_service.dto.PagedResponse<ProductResponse>>> getSellerProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -119,12 +219,16 @@ public class ProductController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) java.math.BigDecimal minPrice,
             @RequestParam(required = false) java.math.BigDecimal maxPrice,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean includeTotal,
+            @RequestParam(required = false) String fields,
             @RequestHeader("X-User-Id") String userId,
-            @RequestHeader("X-User-Role") String role) {
+            @RequestHeader("X-User-Role") String role,
+            WebRequest webRequest) {
 
         if (!role.equals("SELLER")) {
             throw new IllegalArgumentException("Only sellers can access this endpoint");
@@ -134,9 +238,62 @@ public class ProductController {
 
         io.github.johneliud.product_service.dto.PagedResponse<ProductResponse> products =
             productService.getSellerProductsPaged(userId, page, size, search, minPrice, maxPrice, sortBy, sortDir,
-                    category, availableOnly);
+                    category, availableOnly, cursor, includeTotal, fields);
+
+        String etag = ProductETags.of(products, fields);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("GET /api/products/my-products - Not modified");
+            return notModified(etag);
+        }
 
         log.info("GET /api/products/my-products - Retrieved {} products", products.getContent().size());
-        return ResponseEntity.ok(new ApiResponse<>(true, "Products retrieved successfully", products));
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .body(new ApiResponse<>(true, "Products retrieved successfully", products));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields) {
+
+        log.info("GET /api/products/export - Export catalog as {}", format);
+
+        return exportResponse(null, ProductFileFormat.from(format), fields, "products");
+    }
+
+    @GetMapping("/my-products/export")
+    public ResponseEntity<StreamingResponseBody> exportSellerProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can access this endpoint");
+        }
+
+        log.info("GET /api/products/my-products/export - Export seller products as {} by userId: {}", format, userId);
+
+        return exportResponse(userId, ProductFileFormat.from(format), fields, "my-products");
+    }
+
+    /**
+     * The request already matched {@code If-None-Match}, so the body is dropped before serialization.
+     */
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(
+            String sellerId, ProductFileFormat format, String fields, String fileName) {
+        StreamingResponseBody body = productExportService.export(sellerId, format, fields);
+        return ResponseEntity.ok()
+            .contentType(format.mediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + format.extension())
+                .build()
+                .toString())
+            .body(body);
     }
 }
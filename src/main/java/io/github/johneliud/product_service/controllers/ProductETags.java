@@ -0,0 +1,76 @@
+package io.github.johneliud.product_service.controllers;
+
+import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the strong ETags of product responses and parses {@code If-Match}. A product's ETag is its
+ * version, which every write increments; a listing's ETag is a digest of the ids and versions on the
+ * page together with the paging metadata and selected fields.
+ */
+final class ProductETags {
+    private static final String ANY = "*";
+
+    private ProductETags() {
+    }
+
+    static String of(ProductResponse product) {
+        return quote(Long.toString(versionOf(product)));
+    }
+
+    static String of(PagedResponse<ProductResponse> page, String fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        StringBuilder key = new StringBuilder()
+                .append(page.getPage()).append('|')
+                .append(page.getSize()).append('|')
+                .append(page.getTotalElements()).append('|')
+                .append(page.getTotalPages()).append('|')
+                .append(page.isLast()).append('|')
+                .append(page.getNextCursor()).append('|')
+                .append(fields);
+        for (ProductResponse product : page.getContent()) {
+            key.append('|').append(product.getId()).append(':').append(versionOf(product));
+        }
+        byte[] hash = digest.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+        return quote(HexFormat.of().formatHex(hash, 0, 16));
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires, or {@code null} when the header is
+     * absent or {@code *}. Weak and unrecognised tags can never match a product's strong ETag.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag of the product");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag of the product");
+        }
+    }
+
+    private static long versionOf(ProductResponse product) {
+        // Products written before versioning carry no version yet and count as version 0
+        return product.getVersion() == null ? 0L : product.getVersion();
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.johneliud.product_service.controllers;
+
+import io.github.johneliud.product_service.dto.ApiResponse;
+import io.github.johneliud.product_service.dto.ErrorResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
+import io.github.johneliud.product_service.services.ProductFilter;
+import io.github.johneliud.product_service.services.ReactiveProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking variant of the {@code GET /api/products} endpoints of {@link ProductController}: same
+ * paths, parameters, ETags and response bodies, served from {@link ReactiveProductService}. Listings
+ * requested with {@code Accept: application/x-ndjson} stream the products of the page one per line
+ * instead of buffering the page into a single JSON document. Errors map to the same statuses as
+ * {@link io.github.johneliud.product_service.exception.GlobalExceptionHandler}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveProductRoutes {
+    private final ReactiveProductService reactiveProductService;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/products", this::getAllProducts)
+                .GET("/api/products/my-products", this::getSellerProducts)
+                .GET("/api/products/{id}", this::getProductById)
+                .onError(Exception.class, this::handleError)
+                // Handlers validate their parameters eagerly; defer them so that those errors reach onError
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)))
+                .build();
+    }
+
+    private Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        log.info("GET /api/products (reactive) - Get all products request with filters");
+
+        ProductFilter filter = new ProductFilter(
+                request.queryParam("search").orElse(null),
+                decimalParam(request, "minPrice"),
+                decimalParam(request, "maxPrice"),
+                request.queryParam("category").orElse(null),
+                booleanParam(request, "availableOnly", false),
+                request.queryParam("sellerId").orElse(null));
+        return listing(request, filter);
+    }
+
+    private Mono<ServerResponse> getSellerProducts(ServerRequest request) {
+        String userId = request.headers().firstHeader("X-User-Id");
+        String role = request.headers().firstHeader("X-User-Role");
+        if (userId == null || role == null) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+        if (!role.equals("SELLER")) {
+            throw new IllegalArgumentException("Only sellers can access this endpoint");
+        }
+
+        log.info("GET /api/products/my-products (reactive) - Get seller products request by userId: {}", userId);
+
+        ProductFilter filter = new ProductFilter(
+                request.queryParam("search").orElse(null),
+                decimalParam(request, "minPrice"),
+                decimalParam(request, "maxPrice"),
+                request.queryParam("category").orElse(null),
+                booleanParam(request, "availableOnly", false),
+                userId);
+        return listing(request, filter);
+    }
+
+    private Mono<ServerResponse> getProductById(ServerRequest request) {
+        String id = request.pathVariable("id");
+        log.info("GET /api/products/{} (reactive) - Get product by ID request", id);
+
+        return reactiveProductService.getProductById(id)
+                .flatMap(product -> {
+                    String etag = ProductETags.of(product);
+                    return request.checkNotModified(etag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                    .eTag(etag)
+                                    .bodyValue(new ApiResponse<>(true, "Product retrieved successfully", product))));
+                });
+    }
+
+    private Mono<ServerResponse> listing(ServerRequest request, ProductFilter filter) {
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 10);
+        String sortBy = request.queryParam("sortBy").orElse(null);
+        String sortDir = request.queryParam("sortDir").orElse("asc");
+        String cursor = request.queryParam("cursor").orElse(null);
+        String fields = request.queryParam("fields").orElse(null);
+
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reactiveProductService.streamProducts(filter, page, size, sortBy, sortDir, cursor, fields),
+                            ProductResponse.class);
+        }
+
+        boolean includeTotal = booleanParam(request, "includeTotal", true);
+        return reactiveProductService.getProductsPaged(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields)
+                .flatMap(products -> {
+                    String etag = ProductETags.of(products, fields);
+                    return request.checkNotModified(etag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok()
+                                    .eTag(etag)
+                                    .bodyValue(new ApiResponse<>(true, "Products retrieved successfully", products))));
+                });
+    }
+
+    private Mono<ServerResponse> handleError(Throwable ex, ServerRequest request) {
+        if (ex instanceof IllegalArgumentException) {
+            log.error("IllegalArgumentException: {}", ex.getMessage());
+            return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        if (ex instanceof PreconditionFailedException) {
+            log.warn("PreconditionFailedException: {}", ex.getMessage());
+            return error(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        }
+        if (ex instanceof DataAccessResourceFailureException) {
+            log.error("Database unavailable: {}", ex.getMessage());
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Service temporarily unavailable, please retry");
+        }
+        log.error("Unexpected error occurred on {}: ", request.path(), ex);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An error occurred while processing your request");
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status).bodyValue(new ErrorResponse(false, message, null));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+
+    private static boolean booleanParam(ServerRequest request, String name, boolean defaultValue) {
+        return request.queryParam(name).map(Boolean::parseBoolean).orElse(defaultValue);
+    }
+
+    private static BigDecimal decimalParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(BigDecimal::new).orElse(null);
+    }
+}
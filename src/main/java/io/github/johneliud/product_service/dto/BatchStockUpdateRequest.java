@@ -0,0 +1,41 @@
+package io.github.johneliud.product_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStockUpdateRequest {
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = 500, message = "At most 500 items can be updated at once")
+    private List<@Valid Item> items;
+
+    /**
+     * Only matters when MongoDB rejects one of the writes: ordered stops at that write, unordered
+     * attempts the rest. Missing products and insufficient stock are not write errors and are reported
+     * per item either way.
+     */
+    private boolean ordered;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @NotBlank(message = "Product ID is required")
+        private String productId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.johneliud.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStockUpdateResponse {
+    private int appliedCount;
+    private List<ItemResult> results;
+
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String productId;
+        private int quantity;
+        private Status status;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.johneliud.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductResponse {
+    private long matchedCount;
+    private long modifiedCount;
+    private List<String> productIds;
+}
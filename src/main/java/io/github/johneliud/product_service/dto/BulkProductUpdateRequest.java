@@ -0,0 +1,48 @@
+package io.github.johneliud.product_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateRequest {
+    @NotNull(message = "Selection is required")
+    @Valid
+    private ProductSelection selection;
+
+    @NotNull(message = "Changes are required")
+    @Valid
+    private Changes changes;
+
+    /**
+     * Fields to change on every selected product; {@code null} fields are left untouched.
+     * {@code price} and {@code priceChangePercent} are mutually exclusive.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Changes {
+        @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+        private BigDecimal price;
+
+        @DecimalMin(value = "-99.99", message = "Price change must be greater than -100%")
+        @DecimalMax(value = "1000", message = "Price change must not exceed 1000%")
+        private BigDecimal priceChangePercent;
+
+        @Min(value = 0, message = "Quantity must be non-negative")
+        private Integer quantity;
+
+        @Size(max = 50, message = "Category must not exceed 50 characters")
+        private String category;
+    }
+}
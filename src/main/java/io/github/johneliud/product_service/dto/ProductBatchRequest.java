@@ -0,0 +1,19 @@
+package io.github.johneliud.product_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = 500, message = "At most 500 products can be fetched at once")
+    private List<@NotBlank(message = "Product ID is required") String> ids;
+}
@@ -0,0 +1,19 @@
+package io.github.johneliud.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Products found for a batch lookup, in the order their IDs were requested (repeated IDs appear
+ * once), and the requested IDs that matched no product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<ProductResponse> products;
+    private List<String> missingIds;
+}
@@ -0,0 +1,25 @@
+package io.github.johneliud.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportResult {
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    private long row;
+    private Status status;
+    private String id;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,15 @@
+package io.github.johneliud.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportSummary {
+    private long rows;
+    private long created;
+    private long invalid;
+    private long failed;
+}
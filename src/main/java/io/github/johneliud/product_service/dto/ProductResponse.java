@@ -1,5 +1,7 @@
 package io.github.johneliud.product_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponse {
@@ -17,4 +20,8 @@ public class ProductResponse {
     private Integer quantity;
     private String userId;
     private String category;
+
+    /** Sent as the ETag header rather than in the body. */
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,32 @@
+package io.github.johneliud.product_service.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Selects a seller's products for a bulk operation, by ID list and/or exact category, optionally
+ * narrowed by price range. At least one of {@code ids} or {@code category} must be given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSelection {
+    @Size(max = 1000, message = "At most 1000 product IDs can be selected at once")
+    private List<@NotBlank String> ids;
+
+    @Size(max = 50, message = "Category must not exceed 50 characters")
+    private String category;
+
+    @DecimalMin(value = "0", message = "Minimum price must be non-negative")
+    private BigDecimal minPrice;
+
+    @DecimalMin(value = "0", message = "Maximum price must be non-negative")
+    private BigDecimal maxPrice;
+}
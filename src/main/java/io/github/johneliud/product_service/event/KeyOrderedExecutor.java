@@ -0,0 +1,65 @@
+package io.github.johneliud.product_service.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs work on a fixed set of single-threaded lanes chosen by key. Work for the same key always
+ * lands on the same lane and runs in submission order, while different keys spread across lanes
+ * and run concurrently. Lanes run on virtual threads when {@code spring.threads.virtual.enabled} is set.
+ */
+@Component
+@Slf4j
+public class KeyOrderedExecutor {
+    private final ExecutorService[] lanes;
+
+    public KeyOrderedExecutor(@Value("${product.kafka.consumer.lanes:4}") int laneCount,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("At least one lane is required");
+        }
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "order-lane-" + i;
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name(name).factory()
+                    : Thread.ofPlatform().name(name).daemon().factory();
+            lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        log.info("Key-ordered executor started with {} lane(s) on {} threads", laneCount,
+                virtualThreads ? "virtual" : "platform");
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    public int laneOf(String key) {
+        return Math.floorMod(key.hashCode(), lanes.length);
+    }
+
+    public <T> CompletableFuture<T> submit(int lane, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[lane]);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
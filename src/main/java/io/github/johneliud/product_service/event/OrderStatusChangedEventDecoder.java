@@ -0,0 +1,49 @@
+package io.github.johneliud.product_service.event;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Decodes raw {@code order-status-changed} payloads. {@link #peekStatus} streams over the top-level
+ * fields only until it finds {@code newStatus}, skipping nested values without binding them, so
+ * events that are not acted on never have their item list materialized.
+ */
+@Component
+public class OrderStatusChangedEventDecoder {
+    private static final String STATUS_FIELD = "newStatus";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+
+    public OrderStatusChangedEventDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(OrderStatusChangedEvent.class);
+    }
+
+    /**
+     * Returns the {@code newStatus} of the event, or {@code null} when the payload has none.
+     */
+    public String peekStatus(byte[] payload) {
+        try (JsonParser parser = objectMapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            String name;
+            while ((name = parser.nextName()) != null) {
+                JsonToken value = parser.nextToken();
+                if (STATUS_FIELD.equals(name)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getString() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    public OrderStatusChangedEvent read(byte[] payload) {
+        return eventReader.readValue(payload);
+    }
+}
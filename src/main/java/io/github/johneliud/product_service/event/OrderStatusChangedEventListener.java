@@ -1,43 +1,287 @@
 package io.github.johneliud.product_service.event;
 
+import io.github.johneliud.product_service.dto.BatchStockUpdateRequest;
+import io.github.johneliud.product_service.dto.BatchStockUpdateResponse;
+import io.github.johneliud.product_service.services.ProcessedOrderStore;
 import io.github.johneliud.product_service.services.ProductService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
-import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class OrderStatusChangedEventListener {
 
     private final ProductService productService;
-    private final ObjectMapper objectMapper;
+    private final OrderStatusChangedEventDecoder decoder;
+    private final KeyOrderedExecutor laneExecutor;
+    private final ProcessedOrderStore processedOrderStore;
+
+    private final Counter deliveredEvents;
+    private final Counter ignoredEvents;
+    private final Counter invalidEvents;
+    private final DistributionSummary batchSize;
+    private final Timer batchDuration;
+    private final Timer consumerLag;
+
+    public OrderStatusChangedEventListener(ProductService productService, OrderStatusChangedEventDecoder decoder,
+                                           KeyOrderedExecutor laneExecutor, ProcessedOrderStore processedOrderStore,
+                                           MeterRegistry meterRegistry) {
+        this.productService = productService;
+        this.decoder = decoder;
+        this.laneExecutor = laneExecutor;
+        this.processedOrderStore = processedOrderStore;
+        this.deliveredEvents = Counter.builder("orders.status.events")
+                .description("order-status-changed events consumed")
+                .tag("outcome", "delivered")
+                .register(meterRegistry);
+        this.ignoredEvents = Counter.builder("orders.status.events")
+                .description("order-status-changed events consumed")
+                .tag("outcome", "ignored")
+                .register(meterRegistry);
+        this.invalidEvents = Counter.builder("orders.status.events")
+                .description("order-status-changed events consumed")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("orders.status.batch.size")
+                .description("Records received per poll")
+                .register(meterRegistry);
+        this.batchDuration = Timer.builder("orders.status.batch.duration")
+                .description("Time spent handling one batch of order-status-changed records")
+                .register(meterRegistry);
+        this.consumerLag = Timer.builder("orders.status.lag")
+                .description("Delay between an order-status-changed record being produced and consumed")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
 
     @KafkaListener(topics = "order-status-changed", groupId = "product-service")
-    public void onOrderStatusChangedMessage(String message) {
+    public void onOrderStatusChangedMessages(List<ConsumerRecord<String, byte[]>> records) {
+        batchSize.record(records.size());
+        batchDuration.record(() -> {
+            long now = System.currentTimeMillis();
+            List<OrderStatusChangedEvent> delivered = new ArrayList<>();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                consumerLag.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+                try {
+                    // Only DELIVERED events are bound in full; the rest are dropped after the status peek
+                    if (!"DELIVERED".equals(decoder.peekStatus(record.value()))) {
+                        ignoredEvents.increment();
+                        continue;
+                    }
+                    OrderStatusChangedEvent event = decoder.read(record.value());
+                    String problem = validate(event);
+                    if (problem != null) {
+                        invalidEvents.increment();
+                        log.warn("Skipping invalid order-status-changed event at offset {}: {}", record.offset(), problem);
+                        continue;
+                    }
+                    delivered.add(event);
+                    deliveredEvents.increment();
+                } catch (Exception e) {
+                    invalidEvents.increment();
+                    log.error("Failed to deserialize order-status-changed event: {}", e.getMessage());
+                }
+            }
+            onOrdersDelivered(delivered);
+        });
+    }
+
+    /**
+     * Returns why the event cannot be applied, or {@code null} when every item names a product and a
+     * positive quantity.
+     */
+    private static String validate(OrderStatusChangedEvent event) {
+        if (event.getItems() == null) {
+            return "order " + event.getOrderId() + " has no items";
+        }
+        for (OrderStatusChangedEvent.OrderItem item : event.getItems()) {
+            if (item == null || item.getProductId() == null || item.getProductId().isBlank()) {
+                return "order " + event.getOrderId() + " has an item without a productId";
+            }
+            if (item.getQuantity() <= 0) {
+                return "order " + event.getOrderId() + " has a non-positive quantity for product " + item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decrements stock for every item of the delivered orders. Orders already recorded in the
+     * {@link ProcessedOrderStore}, and repeats within the batch, are skipped so that redelivered
+     * events do not decrement stock twice. Items are fanned out to {@link KeyOrderedExecutor} lanes
+     * by productId, so different products are written concurrently while work for one product stays
+     * in order; each lane applies its share as one bulk write. The call returns only once every lane
+     * has finished, so the container commits the batch's offsets only after all of its stock updates
+     * completed.
+     * <p>
+     * When a lane fails, the orders it left unapplied are not recorded and the failure is rethrown so
+     * that the container's error handler retries the batch. Items of those orders that were applied
+     * are recorded under {@code orderId:productId}, and the retry skips them.
+     */
+    public void onOrdersDelivered(List<OrderStatusChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (OrderStatusChangedEvent event : events) {
+            if (event.getOrderId() != null) {
+                keys.add(event.getOrderId());
+                event.getItems().forEach(item -> keys.add(itemKey(event.getOrderId(), item.getProductId())));
+            }
+        }
+        Set<String> pending = processedOrderStore.filterNew(keys);
+        Set<String> accepted = new LinkedHashSet<>();
+
+        Map<Integer, List<OrderLine>> linesByLane = new TreeMap<>();
+        for (OrderStatusChangedEvent event : events) {
+            String orderId = event.getOrderId();
+            if (orderId != null && !pending.remove(orderId)) {
+                log.info("Order {} already processed — skipping replayed DELIVERED event", orderId);
+                continue;
+            }
+            if (orderId != null) {
+                accepted.add(orderId);
+            }
+            log.info("Order {} marked DELIVERED — decrementing stock for {} item(s)", orderId, event.getItems().size());
+            for (OrderStatusChangedEvent.OrderItem item : event.getItems()) {
+                if (orderId != null && !pending.contains(itemKey(orderId, item.getProductId()))) {
+                    log.info("Order {} already decremented product {} — skipping item", orderId, item.getProductId());
+                    continue;
+                }
+                linesByLane.computeIfAbsent(laneExecutor.laneOf(item.getProductId()), lane -> new ArrayList<>())
+                        .add(new OrderLine(orderId, item.getProductId(), item.getQuantity()));
+            }
+        }
+
+        Map<Integer, CompletableFuture<LaneResult>> lanes = new TreeMap<>();
+        linesByLane.forEach((lane, lines) -> lanes.put(lane, laneExecutor.submit(lane, () -> decrementStock(lines))));
+        CompletableFuture.allOf(lanes.values().toArray(new CompletableFuture[0])).join();
+
+        Set<String> settled = new HashSet<>();
+        Set<String> failedOrders = new HashSet<>();
+        Exception failure = null;
+        for (Map.Entry<Integer, CompletableFuture<LaneResult>> lane : lanes.entrySet()) {
+            LaneResult result = lane.getValue().join();
+            settled.addAll(result.settled());
+            if (result.failure() != null) {
+                failure = result.failure();
+                linesByLane.get(lane.getKey()).stream()
+                        .filter(line -> !result.settled().contains(line.key()))
+                        .forEach(line -> failedOrders.add(line.orderId()));
+            }
+        }
+
+        Set<String> processed = new LinkedHashSet<>(accepted);
+        processed.removeAll(failedOrders);
+        linesByLane.values().forEach(lines -> lines.stream()
+                .filter(line -> line.orderId() != null && failedOrders.contains(line.orderId()))
+                .filter(line -> settled.contains(line.key()))
+                .forEach(line -> processed.add(line.key())));
+        try {
+            processedOrderStore.markProcessed(processed);
+        } catch (Exception e) {
+            log.error("Failed to record {} order(s) as processed: {}", processed.size(), e.getMessage());
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Failed to decrement stock for " + failedOrders.size() + " order(s)", failure);
+        }
+    }
+
+    /**
+     * Applies one lane's items as a single bulk write and reports the items whose outcome is final.
+     * Per-item rejections such as insufficient stock are final and would not change on a replay; only
+     * a failed write leaves items unsettled.
+     */
+    private LaneResult decrementStock(List<OrderLine> lines) {
+        Set<String> settled = new HashSet<>();
         try {
-            onOrderStatusChanged(objectMapper.readValue(message, OrderStatusChangedEvent.class));
+            BatchStockUpdateResponse response = productService.decrementStockBatch(
+                    lines.stream().map(line -> new BatchStockUpdateRequest.Item(line.productId(), line.quantity())).toList(),
+                    false);
+            Map<String, BatchStockUpdateResponse.Status> rejected = new HashMap<>();
+            response.getResults().stream()
+                    .filter(result -> result.getStatus() != BatchStockUpdateResponse.Status.APPLIED)
+                    .forEach(result -> rejected.put(result.getProductId(), result.getStatus()));
+
+            Map<String, List<OrderLine>> fallback = new LinkedHashMap<>();
+            for (OrderLine line : lines) {
+                BatchStockUpdateResponse.Status status = rejected.get(line.productId());
+                if (status == BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK) {
+                    fallback.computeIfAbsent(line.productId(), id -> new ArrayList<>()).add(line);
+                } else {
+                    if (status != null) {
+                        log.error("Failed to decrement stock for productId {} (orderId {}): {}",
+                                line.productId(), line.orderId(), status);
+                    }
+                    settled.add(line.key());
+                }
+            }
+            fallback.forEach((productId, productLines) -> decrementPerOrder(productId, productLines, settled));
+            return new LaneResult(settled, null);
         } catch (Exception e) {
-            log.error("Failed to deserialize order-status-changed event: {}", e.getMessage());
+            log.error("Failed to decrement stock for {} item(s): {}", lines.size(), e.getMessage());
+            return new LaneResult(settled, e);
         }
     }
 
-    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
-        if (!"DELIVERED".equals(event.getNewStatus())) {
+    /**
+     * The combined decrement of several orders for one product was rejected as a whole; applies each
+     * order's quantity on its own, in order, so that the orders the stock still covers go through.
+     */
+    private void decrementPerOrder(String productId, List<OrderLine> lines, Set<String> settled) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach(line -> quantities.merge(line.orderId(), line.quantity(), Integer::sum));
+        if (quantities.size() == 1) {
+            log.error("Failed to decrement stock for productId {} (orderId {}): {}", productId,
+                    lines.get(0).orderId(), BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK);
+            lines.forEach(line -> settled.add(line.key()));
             return;
         }
+        log.warn("Combined decrement of {} order(s) for productId {} rejected — applying them one by one",
+                quantities.size(), productId);
+        for (Map.Entry<String, Integer> order : quantities.entrySet()) {
+            BatchStockUpdateResponse response = productService.decrementStockBatch(
+                    List.of(new BatchStockUpdateRequest.Item(productId, order.getValue())), false);
+            if (response.getAppliedCount() == 0) {
+                log.error("Failed to decrement stock for productId {} (orderId {}): {}", productId, order.getKey(),
+                        response.getResults().isEmpty() ? null : response.getResults().get(0).getStatus());
+            }
+            settled.add(itemKey(order.getKey(), productId));
+        }
+    }
 
-        log.info("Order {} marked DELIVERED — decrementing stock for {} item(s)", event.getOrderId(), event.getItems().size());
+    private static String itemKey(String orderId, String productId) {
+        return orderId + ":" + productId;
+    }
 
-        for (OrderStatusChangedEvent.OrderItem item : event.getItems()) {
-            try {
-                productService.decrementStock(item.getProductId(), item.getQuantity());
-            } catch (Exception e) {
-                log.error("Failed to decrement stock for productId {} (orderId {}): {}",
-                        item.getProductId(), event.getOrderId(), e.getMessage());
-            }
+    /**
+     * One order's quantity of one product, as applied by a lane.
+     */
+    private record OrderLine(String orderId, String productId, int quantity) {
+        String key() {
+            return itemKey(orderId, productId);
         }
     }
+
+    private record LaneResult(Set<String> settled, Exception failure) {
+    }
 }
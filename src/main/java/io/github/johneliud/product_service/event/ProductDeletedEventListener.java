@@ -0,0 +1,39 @@
+package io.github.johneliud.product_service.event;
+
+import io.github.johneliud.product_service.services.ProductCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.List;
+
+/**
+ * Evicts deleted products from the local {@link ProductCache}. Every instance joins its own
+ * consumer group so that a delete handled by one node invalidates the cache on all of them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDeletedEventListener {
+
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = "product-deleted",
+            groupId = "${spring.kafka.consumer.group-id:product-service}-cache-#{T(java.util.UUID).randomUUID()}",
+            properties = "auto.offset.reset=latest")
+    public void onProductDeletedMessages(List<byte[]> messages) {
+        for (byte[] message : messages) {
+            try {
+                ProductDeletedEvent event = objectMapper.readValue(message, ProductDeletedEvent.class);
+                productCache.evict(event.getProductId());
+                log.debug("Evicted product {} from cache after product-deleted event", event.getProductId());
+            } catch (Exception e) {
+                log.error("Failed to deserialize product-deleted event: {}", e.getMessage());
+            }
+        }
+    }
+}
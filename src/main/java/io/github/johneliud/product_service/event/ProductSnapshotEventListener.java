@@ -0,0 +1,36 @@
+package io.github.johneliud.product_service.event;
+
+import io.github.johneliud.product_service.services.ProductCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Evicts changed products from the local {@link ProductCache}. Updates, stock changes and bulk writes
+ * all publish a snapshot keyed by productId, so the record key alone identifies the stale entry; like
+ * {@link ProductDeletedEventListener}, every instance joins its own consumer group.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSnapshotEventListener {
+
+    private final ProductCache productCache;
+
+    @KafkaListener(
+            topics = "product-snapshots",
+            groupId = "${spring.kafka.consumer.group-id:product-service}-snapshot-cache-#{T(java.util.UUID).randomUUID()}",
+            properties = "auto.offset.reset=latest")
+    public void onProductSnapshotMessages(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.key() != null) {
+                productCache.evict(record.key());
+            }
+        }
+        log.debug("Evicted {} product(s) from cache after product-snapshots records", records.size());
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.johneliud.product_service.exception;
+
+/**
+ * Thrown when a conditional request's {@code If-Match} precondition does not hold.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.johneliud.product_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * An event waiting in the {@code product_outbox} collection to be relayed to Kafka. The payload is
+ * the JSON body of the record; entries are removed once the broker acknowledged them.
+ */
+@Document(collection = "product_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    private String id;
+
+    private String topic;
+    private String key;
+    private String payload;
+    private Instant createdAt;
+
+    /** The entry is hidden from relays until then; set while a relay holds it. */
+    private Instant lockedUntil;
+
+    /** Identifies the relay cycle that currently holds the entry. */
+    private String claim;
+
+    private int attempts;
+}
@@ -0,0 +1,24 @@
+package io.github.johneliud.product_service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Record of an order whose DELIVERED stock decrement has been applied. Kept for a limited
+ * retention period by a TTL index on {@code processedAt}.
+ */
+@Document(collection = "processed_orders")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedOrder {
+    @Id
+    private String orderId;
+
+    private Instant processedAt;
+}
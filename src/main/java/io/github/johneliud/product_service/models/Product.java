@@ -4,7 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -25,8 +25,18 @@ public class Product {
     
     private Integer quantity;
     
-    @Indexed
     private String userId;
 
     private String category;
+
+    /** Incremented by every write; exposed to clients as the product's ETag. */
+    @Version
+    private Long version;
+
+    /**
+     * Set by every write together with the change itself and reset to {@code false} once the
+     * product's snapshot was published to {@code product-snapshots}. While a relay publishes it, the
+     * unmapped {@code snapshotLockedUntil} and {@code snapshotClaim} fields hold that relay's lease.
+     */
+    private Boolean snapshotPending;
 }
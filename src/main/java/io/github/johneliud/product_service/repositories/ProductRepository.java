@@ -2,11 +2,27 @@ package io.github.johneliud.product_service.repositories;
 
 import io.github.johneliud.product_service.models.Product;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Product reads leave out {@code stockBatches}, the recent bulk decrement IDs that only the bulk
+ * stock decrement reads back, so they are not transferred with every product.
+ */
 @Repository
 public interface ProductRepository extends MongoRepository<Product, String> {
+    String PRODUCT_FIELDS = "{ 'stockBatches': 0 }";
+
+    @Query(value = "{ '_id': ?0 }", fields = PRODUCT_FIELDS)
+    Optional<Product> findProductById(String id);
+
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = PRODUCT_FIELDS)
+    List<Product> findProductsByIdIn(Collection<String> ids);
+
+    @Query(value = "{ 'userId': ?0 }", fields = PRODUCT_FIELDS)
     List<Product> findByUserId(String userId);
 }
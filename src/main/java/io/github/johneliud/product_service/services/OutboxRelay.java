@@ -0,0 +1,428 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.OutboxEvent;
+import io.github.johneliud.product_service.models.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Drains the {@code product_outbox} collection and pending product snapshots to Kafka in batches on a
+ * background thread.
+ *
+ * <p>Each cycle claims up to {@code product.outbox.batch-size} entries by leasing them with a claim
+ * token, so several instances can relay side by side without publishing the same entry twice while
+ * the lease holds. Records are keyed by the entry's key (the productId), so one product's events
+ * land on one partition in order. The whole batch is handed to the producer before any
+ * acknowledgement is awaited, letting it fill compressed producer batches; entries are deleted once
+ * their delivery callback reports success, and failed ones are retried when their lease expires.
+ *
+ * <p>Each cycle also publishes products flagged {@code snapshotPending} to the compacted
+ * {@code product-snapshots} topic, keyed by productId. Pending products are leased the same way as
+ * outbox entries, and the leased products are read again just before they are sent, so a product
+ * deleted since the claim is skipped and one written again is published in its current state. The
+ * flag is cleared only if the product was not written again meanwhile. Because the flag is set by
+ * the same update as the change itself, the latest state of every product is eventually published;
+ * intermediate versions may be skipped, and a product deleted before its snapshot went out only gets
+ * the tombstone. A published {@code product-deleted} entry is followed by a tombstone on
+ * {@code product-snapshots}. Within a cycle snapshots are handed to the producer before tombstones,
+ * but across instances a snapshot read just before a delete can still reach the topic after that
+ * delete's tombstone if the relay that read it stalls for longer than
+ * {@code product.outbox.initial-lock}.
+ *
+ * <p>{@code product-deleted} entries are recorded before the product is removed. An entry whose
+ * product still exists is held back, and dropped once it is older than
+ * {@code product.outbox.commit-grace}, since the delete it announced never happened.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+    static final String CLAIM_INDEX_NAME = "product_outbox_lockedUntil_id";
+    static final String SNAPSHOT_LOCKED_UNTIL_FIELD = "snapshotLockedUntil";
+    static final String SNAPSHOT_CLAIM_FIELD = "snapshotClaim";
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration commitGrace;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+    private final Counter discardedEvents;
+    private final Counter publishedSnapshotEvents;
+    private final Counter failedSnapshotEvents;
+    private final Timer relayLag;
+
+    private volatile Thread worker;
+
+    @Value("${product.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.indexes.ensure-on-startup:true}")
+    private boolean ensureIndexOnStartup;
+
+    @Value("${product.snapshots.backfill:true}")
+    private boolean snapshotBackfill;
+
+    public OutboxRelay(MongoTemplate mongoTemplate, KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                       @Value("${product.outbox.batch-size:500}") int batchSize,
+                       @Value("${product.outbox.poll-interval:200ms}") Duration pollInterval,
+                       @Value("${product.outbox.lease:30s}") Duration lease,
+                       @Value("${product.outbox.commit-grace:1m}") Duration commitGrace,
+                       MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.commitGrace = commitGrace;
+        Gauge.builder("product.outbox.depth", depth, AtomicLong::get)
+                .description("Events waiting in the outbox, as of the last relay cycle")
+                .register(meterRegistry);
+        this.publishedEvents = Counter.builder("product.outbox.events")
+                .description("Outbox entries handled by the relay")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("product.outbox.events")
+                .description("Outbox entries handled by the relay")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.discardedEvents = Counter.builder("product.outbox.events")
+                .description("Outbox entries handled by the relay")
+                .tag("outcome", "discarded")
+                .register(meterRegistry);
+        this.publishedSnapshotEvents = Counter.builder("product.snapshots.events")
+                .description("Product snapshots published to product-snapshots")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.failedSnapshotEvents = Counter.builder("product.snapshots.events")
+                .description("Product snapshots published to product-snapshots")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.relayLag = Timer.builder("product.outbox.relay.lag")
+                .description("Delay between an event being recorded in the outbox and acknowledged by Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (ensureIndexOnStartup) {
+            try {
+                mongoTemplate.indexOps(OutboxEvent.class).createIndex(new Index()
+                        .on("lockedUntil", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named(CLAIM_INDEX_NAME));
+            } catch (Exception e) {
+                log.error("Failed to create outbox index: {}", e.getMessage());
+            }
+        }
+        if (enabled) {
+            worker = Thread.ofPlatform().name("product-outbox-relay").daemon().start(this::run);
+        } else {
+            log.info("Outbox relay disabled (product.outbox.relay.enabled=false)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run() {
+        log.info("Outbox relay started: batch size {}, poll interval {}", batchSize, pollInterval);
+        if (snapshotBackfill) {
+            backfillSnapshots();
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (relayBatch() < batchSize) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Outbox relay cycle failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        log.info("Outbox relay stopped");
+    }
+
+    /**
+     * Runs one relay cycle and returns the larger of the number of snapshots and outbox entries it
+     * picked up.
+     */
+    public int relayBatch() throws InterruptedException {
+        Instant now = Instant.now();
+        String snapshotToken = UUID.randomUUID().toString();
+        List<Object> snapshotIds = claimSnapshots(now, snapshotToken);
+        List<OutboxEvent> batch = claim(now);
+        depth.set(mongoTemplate.estimatedCount(OutboxEvent.class));
+        if (snapshotIds.isEmpty() && batch.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> publishable = publishable(batch, now);
+        List<Product> snapshots = snapshotIds.isEmpty() ? List.of() : claimedSnapshots(snapshotIds, snapshotToken);
+
+        // Filled from producer callback threads
+        ConcurrentLinkedQueue<Product> publishedSnapshots = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> completedSnapshots = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> acknowledged = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> failed = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>(snapshots.size() + publishable.size());
+
+        // Snapshots go out first, so a tombstone sent below follows any snapshot of the same product read in this cycle
+        for (Product product : snapshots) {
+            sends.add(send(ProductOutbox.PRODUCT_SNAPSHOTS_TOPIC, product.getId(), snapshotPayload(product))
+                    .whenComplete((result, error) -> {
+                        if (error == null) {
+                            publishedSnapshots.add(product);
+                            publishedSnapshotEvents.increment();
+                        } else {
+                            failedSnapshotEvents.increment();
+                            log.warn("Failed to publish snapshot of product {}: {}", product.getId(), error.getMessage());
+                        }
+                        completedSnapshots.add(product.getId());
+                    }));
+        }
+        for (OutboxEvent event : publishable) {
+            CompletableFuture<?> send = send(event.getTopic(), event.getKey(), event.getPayload());
+            if (ProductOutbox.PRODUCT_DELETED_TOPIC.equals(event.getTopic())) {
+                send = CompletableFuture.allOf(send, send(ProductOutbox.PRODUCT_SNAPSHOTS_TOPIC, event.getKey(), null));
+            }
+            sends.add(send.whenComplete((result, error) -> {
+                if (error == null) {
+                    acknowledged.add(event.getId());
+                    publishedEvents.increment();
+                    relayLag.record(Duration.between(event.getCreatedAt(), Instant.now()));
+                } else {
+                    failed.add(event.getId());
+                    failedEvents.increment();
+                    log.warn("Failed to publish outbox event {} to {}: {}", event.getId(), event.getTopic(),
+                            error.getMessage());
+                }
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Individual failures were recorded by their callbacks
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for {} send(s); unacknowledged entries are retried after the lease",
+                    sends.size());
+        }
+
+        if (!completedSnapshots.isEmpty()) {
+            releaseSnapshots(publishedSnapshots, completedSnapshots, snapshotToken);
+        }
+        if (!acknowledged.isEmpty()) {
+            mongoTemplate.remove(query(where("_id").in(List.copyOf(acknowledged))), OutboxEvent.class);
+        }
+        if (!failed.isEmpty()) {
+            mongoTemplate.updateMulti(query(where("_id").in(List.copyOf(failed))), new Update().inc("attempts", 1),
+                    OutboxEvent.class);
+        }
+        log.debug("Relay cycle: {} snapshot(s) published, {} outbox entries claimed, {} published, {} failed",
+                publishedSnapshots.size(), batch.size(), acknowledged.size(), failed.size());
+        return Math.max(snapshotIds.size(), batch.size());
+    }
+
+    /**
+     * Hands a record to the producer; a failure to even enqueue it is reported through the future.
+     */
+    private CompletableFuture<?> send(String topic, String key, String value) {
+        try {
+            return kafkaTemplate.send(topic, key, value);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Flags products that never had a snapshot published, i.e. those written before snapshots existed.
+     * Published products carry {@code snapshotPending: false}, so after the first run this matches nothing.
+     * Like the lease below, the update goes to the raw collection so that it leaves the product's
+     * version, and with it the ETag, unchanged.
+     */
+    void backfillSnapshots() {
+        try {
+            long flagged = mongoTemplate.updateMulti(query(where(ProductService.SNAPSHOT_PENDING_FIELD).exists(false)),
+                    new Update().set(ProductService.SNAPSHOT_PENDING_FIELD, true), Document.class,
+                    mongoTemplate.getCollectionName(Product.class)).getModifiedCount();
+            if (flagged > 0) {
+                log.info("Flagged {} product(s) without a published snapshot", flagged);
+            }
+        } catch (Exception e) {
+            log.error("Failed to flag products for snapshot backfill: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Leases pending products to this cycle like {@link #claim} does for outbox entries, and returns
+     * the candidate ids as stored; the ones another relay leased in between are filtered out when the
+     * claimed products are read. Both statements work on the raw collection: an update mapped against
+     * {@link Product} would also increment its {@code @Version}, changing the ETag on every claim.
+     */
+    private List<Object> claimSnapshots(Instant now, String token) {
+        String collection = mongoTemplate.getCollectionName(Product.class);
+        Query candidates = query(where(ProductService.SNAPSHOT_PENDING_FIELD).is(true)
+                .and(SNAPSHOT_LOCKED_UNTIL_FIELD).not().gt(now))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(candidates, Document.class, collection).stream()
+                .map(document -> document.get("_id"))
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        mongoTemplate.updateMulti(query(where("_id").in(ids).and(ProductService.SNAPSHOT_PENDING_FIELD).is(true)
+                        .and(SNAPSHOT_LOCKED_UNTIL_FIELD).not().gt(now)),
+                new Update().set(SNAPSHOT_LOCKED_UNTIL_FIELD, now.plus(lease)).set(SNAPSHOT_CLAIM_FIELD, token),
+                Document.class, collection);
+        return ids;
+    }
+
+    /**
+     * Reads the products leased with {@code token} as they are now, right before they are sent.
+     * Products deleted since the claim are no longer found.
+     */
+    private List<Product> claimedSnapshots(List<Object> ids, String token) {
+        return mongoTemplate.find(ProductFields.withoutInternalFields(
+                query(where("_id").in(ids).and(SNAPSHOT_CLAIM_FIELD).is(token))), Product.class);
+    }
+
+    private String snapshotPayload(Product product) {
+        return objectMapper.writeValueAsString(ProductFields.toResponse(product, ProductFields.ALL));
+    }
+
+    /**
+     * Clears the pending flag only on products still at the version that was published; a product
+     * written again in the meantime keeps its flag and is published once more in a later cycle. Then
+     * gives up the lease on every product whose send completed, so failed ones are retried in the next
+     * cycle. Products whose send is still outstanding keep their lease until it expires, so another
+     * relay cannot publish a newer state that this send would then overwrite.
+     */
+    private void releaseSnapshots(Collection<Product> published, Collection<String> completed, String token) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (Product product : published) {
+            bulk.updateOne(query(where("_id").is(product.getId())
+                            .and(ProductService.VERSION_FIELD).is(product.getVersion())),
+                    new Update().set(ProductService.SNAPSHOT_PENDING_FIELD, false));
+        }
+        bulk.updateMulti(query(where("_id").in(List.copyOf(completed)).and(SNAPSHOT_CLAIM_FIELD).is(token)),
+                new Update().unset(SNAPSHOT_LOCKED_UNTIL_FIELD).unset(SNAPSHOT_CLAIM_FIELD));
+        bulk.execute();
+    }
+
+    /**
+     * Leases the oldest visible entries to this cycle: a candidate read, a conditional
+     * {@code updateMany} that only takes entries no other relay leased in between, and a read of the
+     * entries that carry this cycle's claim token.
+     */
+    private List<OutboxEvent> claim(Instant now) {
+        Query candidates = query(where("lockedUntil").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "lockedUntil", "_id"))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(query(where("_id").in(ids).and("lockedUntil").lte(now)),
+                new Update().set("lockedUntil", now.plus(lease)).set("claim", token), OutboxEvent.class);
+        return mongoTemplate.find(query(where("claim").is(token)).with(Sort.by(Sort.Direction.ASC, "_id")),
+                OutboxEvent.class);
+    }
+
+    /**
+     * Holds back {@code product-deleted} entries whose product still exists, and drops those among
+     * them older than the commit grace period.
+     */
+    private List<OutboxEvent> publishable(List<OutboxEvent> batch, Instant now) {
+        Set<String> deletedKeys = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            if (ProductOutbox.PRODUCT_DELETED_TOPIC.equals(event.getTopic())) {
+                deletedKeys.add(event.getKey());
+            }
+        }
+        if (deletedKeys.isEmpty()) {
+            return batch;
+        }
+
+        Query existing = query(where("_id").in(deletedKeys));
+        existing.fields().include("_id");
+        Set<String> stillPresent = new HashSet<>();
+        mongoTemplate.find(existing, Product.class).forEach(product -> stillPresent.add(product.getId()));
+        if (stillPresent.isEmpty()) {
+            return batch;
+        }
+
+        List<OutboxEvent> publishable = new ArrayList<>(batch.size());
+        List<String> abandoned = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            if (!ProductOutbox.PRODUCT_DELETED_TOPIC.equals(event.getTopic()) || !stillPresent.contains(event.getKey())) {
+                publishable.add(event);
+            } else if (event.getCreatedAt().plus(commitGrace).isBefore(now)) {
+                abandoned.add(event.getId());
+            }
+        }
+        if (!abandoned.isEmpty()) {
+            mongoTemplate.remove(query(where("_id").in(abandoned)), OutboxEvent.class);
+            discardedEvents.increment(abandoned.size());
+            log.warn("Discarded {} product-deleted outbox event(s) whose product was never deleted", abandoned.size());
+        }
+        return publishable;
+    }
+}
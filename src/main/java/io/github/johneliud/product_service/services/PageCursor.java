@@ -0,0 +1,66 @@
+package io.github.johneliud.product_service.services;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor. It records the sort the page was produced with and the sort
+ * value and ID of the last product on that page, encoded as URL-safe Base64.
+ */
+@Value
+public class PageCursor {
+    private static final String SEPARATOR = "\n";
+
+    String sortBy;
+    Sort.Direction direction;
+    Object value;
+    String id;
+
+    public String encode() {
+        String type;
+        String raw;
+        if (value == null) {
+            type = "n";
+            raw = "";
+        } else if (value instanceof String s) {
+            type = "s";
+            raw = s;
+        } else if (value instanceof BigDecimal d) {
+            type = "d";
+            raw = d.toPlainString();
+        } else if (value instanceof Integer i) {
+            type = "i";
+            raw = i.toString();
+        } else {
+            throw new IllegalStateException("Unsupported cursor value type: " + value.getClass().getName());
+        }
+        // The value goes last so that it may itself contain the separator
+        String plain = String.join(SEPARATOR, sortBy, direction.name(), type, id, raw);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = plain.split(SEPARATOR, 5);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Object value = switch (parts[2]) {
+                case "n" -> null;
+                case "s" -> parts[4];
+                case "d" -> new BigDecimal(parts[4]);
+                case "i" -> Integer.valueOf(parts[4]);
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+            return new PageCursor(parts[0], Sort.Direction.valueOf(parts[1]), value, parts[3]);
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed Base64 and number formats
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
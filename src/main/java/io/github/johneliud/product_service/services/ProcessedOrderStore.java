@@ -0,0 +1,299 @@
+package io.github.johneliud.product_service.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.johneliud.product_service.models.ProcessedOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Remembers which orders already had their DELIVERED stock decrement applied.
+ *
+ * <p>Lookups go through three tiers: an exact LRU of recently processed orderIds, then a Bloom
+ * filter over every orderId recorded within the retention period, and only for Bloom hits that the
+ * LRU cannot confirm, the {@code processed_orders} collection. Replays of recent orders are
+ * therefore rejected from memory, and new orders pass without a read.
+ *
+ * <p>The Bloom filter is split into generations of {@code product.dedupe.expected-orders} each. A new
+ * generation starts every half retention period, or earlier once the current one is full, and an
+ * older generation is dropped only when the newest orderId it holds has outlived the retention
+ * period. The filter therefore covers every record the TTL index still keeps, while its memory
+ * follows the number of orders within one retention period. Until it has been warmed from the
+ * collection every non-LRU lookup falls through to MongoDB.
+ */
+@Component
+@Slf4j
+public class ProcessedOrderStore {
+    static final String TTL_INDEX_NAME = "processed_orders_ttl";
+
+    private final MongoTemplate mongoTemplate;
+    private final long generationCapacity;
+    private final double falsePositiveProbability;
+    private final Duration retention;
+    private final Duration generationSpan;
+    private final Cache<String, Boolean> recent;
+
+    private volatile Generation current;
+    private volatile List<Generation> older = List.of();
+    private volatile boolean warm;
+
+    private final Counter newOrders;
+    private final Counter memoryReplays;
+    private final Counter storeReplays;
+    private final Counter falsePositives;
+    private final Counter storeLookups;
+
+    @Value("${product.indexes.ensure-on-startup:true}")
+    private boolean ensureIndexOnStartup;
+
+    @Value("${product.dedupe.warm-up-on-startup:true}")
+    private boolean warmUpOnStartup;
+
+    public ProcessedOrderStore(MongoTemplate mongoTemplate,
+                               @Value("${product.dedupe.expected-orders:1000000}") long generationCapacity,
+                               @Value("${product.dedupe.false-positive-rate:0.001}") double falsePositiveProbability,
+                               @Value("${product.dedupe.recent-size:100000}") long recentSize,
+                               @Value("${product.dedupe.retention:7d}") Duration retention,
+                               MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.generationCapacity = generationCapacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.retention = retention;
+        this.generationSpan = retention.dividedBy(2);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(recentSize)
+                .expireAfterWrite(retention)
+                .build();
+        this.current = new Generation(new BloomFilter(generationCapacity, falsePositiveProbability), Instant.now());
+
+        this.newOrders = lookupCounter(meterRegistry, "new");
+        this.memoryReplays = lookupCounter(meterRegistry, "replay_memory");
+        this.storeReplays = lookupCounter(meterRegistry, "replay_store");
+        this.falsePositives = lookupCounter(meterRegistry, "false_positive");
+        this.storeLookups = Counter.builder("orders.dedupe.store.lookups")
+                .description("Round trips to processed_orders made to confirm possible replays")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedupe.bloom.insertions", this, store -> store.current.filter().insertions())
+                .description("orderIds added to the current Bloom filter generation")
+                .register(meterRegistry);
+        Gauge.builder("orders.dedupe.bloom.generations", this, store -> store.older.size() + 1)
+                .description("Live Bloom filter generations")
+                .register(meterRegistry);
+        log.info("Processed-order store initialized - expectedOrders: {}, falsePositiveRate: {}, recentSize: {}, retention: {}",
+                generationCapacity, falsePositiveProbability, recentSize, retention);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("orders.dedupe.lookups")
+                .description("Processed-order dedupe lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (ensureIndexOnStartup) {
+            ensureTtlIndex();
+        }
+        if (warmUpOnStartup) {
+            // Loading can take a while on a large collection; lookups hit MongoDB until it completes
+            Thread.ofPlatform().name("processed-order-warm-up").daemon().start(this::warmUp);
+        }
+    }
+
+    public void ensureTtlIndex() {
+        try {
+            mongoTemplate.indexOps(ProcessedOrder.class).createIndex(new Index()
+                    .on("processedAt", Sort.Direction.ASC)
+                    .expire(retention)
+                    .named(TTL_INDEX_NAME));
+            log.info("Ensured processed_orders TTL index ({})", retention);
+        } catch (Exception e) {
+            log.error("Failed to create processed_orders TTL index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds every recorded orderId to the Bloom filter, oldest first. Records already past the
+     * retention period, which the TTL monitor has not removed yet, are skipped.
+     */
+    public void warmUp() {
+        Query ids = new Query().with(Sort.by(Sort.Direction.ASC, "processedAt"));
+        ids.fields().include("_id").include("processedAt");
+        Instant cutoff = Instant.now().minus(retention);
+        long loaded = 0;
+        try (Stream<ProcessedOrder> stream = mongoTemplate.stream(ids, ProcessedOrder.class)) {
+            for (ProcessedOrder order : (Iterable<ProcessedOrder>) stream::iterator) {
+                Instant processedAt = order.getProcessedAt() != null ? order.getProcessedAt() : Instant.now();
+                if (processedAt.isBefore(cutoff)) {
+                    continue;
+                }
+                addToFilter(order.getOrderId(), processedAt);
+                loaded++;
+            }
+            warm = true;
+            log.info("Processed-order Bloom filter warmed with {} orderId(s)", loaded);
+        } catch (Exception e) {
+            log.error("Failed to warm processed-order Bloom filter after {} orderId(s): {}", loaded, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the orderIds that have not been processed yet, in encounter order and without
+     * duplicates. At most one query is made, and only for ids the in-memory tiers cannot settle.
+     */
+    public Set<String> filterNew(Collection<String> orderIds) {
+        Set<String> fresh = new LinkedHashSet<>();
+        Set<String> seen = new LinkedHashSet<>();
+        Set<String> uncertain = new HashSet<>();
+        for (String orderId : orderIds) {
+            if (!seen.add(orderId) || recent.getIfPresent(orderId) != null) {
+                memoryReplays.increment();
+            } else if (warm && !mightContain(orderId)) {
+                newOrders.increment();
+                fresh.add(orderId);
+            } else {
+                uncertain.add(orderId);
+            }
+        }
+        if (uncertain.isEmpty()) {
+            return fresh;
+        }
+
+        storeLookups.increment();
+        Query known = query(where("_id").in(uncertain));
+        known.fields().include("_id");
+        Set<String> processed = new HashSet<>();
+        for (ProcessedOrder order : mongoTemplate.find(known, ProcessedOrder.class)) {
+            processed.add(order.getOrderId());
+        }
+
+        Set<String> result = new LinkedHashSet<>();
+        for (String orderId : seen) {
+            if (fresh.contains(orderId)) {
+                result.add(orderId);
+            } else if (uncertain.contains(orderId)) {
+                if (processed.contains(orderId)) {
+                    storeReplays.increment();
+                    recent.put(orderId, Boolean.TRUE);
+                } else {
+                    (warm ? falsePositives : newOrders).increment();
+                    result.add(orderId);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the orders as processed with one bulk upsert, so recording an order twice is harmless.
+     */
+    public void markProcessed(Collection<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Pair<Query, Update>> upserts = new ArrayList<>(orderIds.size());
+        for (String orderId : orderIds) {
+            upserts.add(Pair.of(query(where("_id").is(orderId)), new Update().setOnInsert("processedAt", now)));
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedOrder.class)
+                .upsert(upserts)
+                .execute();
+        for (String orderId : orderIds) {
+            recent.put(orderId, Boolean.TRUE);
+            addToFilter(orderId, now);
+        }
+    }
+
+    private boolean mightContain(String orderId) {
+        if (current.filter().mightContain(orderId)) {
+            return true;
+        }
+        for (Generation generation : older) {
+            if (generation.filter().mightContain(orderId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addToFilter(String orderId, Instant processedAt) {
+        if (isDue(current, Instant.now())) {
+            rotate();
+        }
+        current.add(orderId, processedAt);
+    }
+
+    private boolean isDue(Generation generation, Instant now) {
+        return generation.filter().insertions() >= generationCapacity
+                || !generation.started().plus(generationSpan).isAfter(now);
+    }
+
+    /**
+     * Starts a new generation and drops the older ones whose orderIds have all passed the retention
+     * period.
+     */
+    private synchronized void rotate() {
+        Instant now = Instant.now();
+        if (!isDue(current, now)) {
+            return;
+        }
+        Instant cutoff = now.minus(retention);
+        List<Generation> live = new ArrayList<>(older.size() + 1);
+        live.add(current);
+        for (Generation generation : older) {
+            if (generation.newest().isAfter(cutoff)) {
+                live.add(generation);
+            }
+        }
+        older = List.copyOf(live);
+        current = new Generation(new BloomFilter(generationCapacity, falsePositiveProbability), now);
+        log.info("Rotated processed-order Bloom filter generation ({} older generation(s) live)", live.size());
+    }
+
+    /**
+     * A Bloom filter generation with the time it started and the latest {@code processedAt} it holds.
+     */
+    private record Generation(BloomFilter filter, Instant started, AtomicLong newestMillis) {
+        Generation(BloomFilter filter, Instant started) {
+            this(filter, started, new AtomicLong(Long.MIN_VALUE));
+        }
+
+        void add(String orderId, Instant processedAt) {
+            filter.add(orderId);
+            newestMillis.accumulateAndGet(processedAt.toEpochMilli(), Math::max);
+        }
+
+        Instant newest() {
+            return Instant.ofEpochMilli(newestMillis.get());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.github.johneliud.product_service.dto.BulkProductResponse;
+import io.github.johneliud.product_service.dto.BulkProductUpdateRequest;
+import io.github.johneliud.product_service.dto.ProductSelection;
+import io.github.johneliud.product_service.event.ProductDeletedEvent;
+import io.github.johneliud.product_service.models.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Applies one change set, or a delete, to many products of a single seller. The selection is
+ * resolved to product IDs with one projected read, then changed with a single multi-document write
+ * whose predicate repeats {@code userId}, so products of other sellers can never be touched.
+ */
+@Service
+@Slf4j
+public class ProductBulkService {
+    /** Lowest price a relative price change can produce, matching the {@code @DecimalMin} on product prices. */
+    static final BigDecimal MIN_PRICE = new BigDecimal("0.01");
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductOutbox productOutbox;
+    private final ProductCache productCache;
+    private final ProductCountService productCountService;
+    private final int maxProducts;
+
+    public ProductBulkService(MongoTemplate mongoTemplate, ProductOutbox productOutbox,
+                              ProductCache productCache, ProductCountService productCountService,
+                              @Value("${product.bulk.max-products:10000}") int maxProducts) {
+        this.mongoTemplate = mongoTemplate;
+        this.productOutbox = productOutbox;
+        this.productCache = productCache;
+        this.productCountService = productCountService;
+        this.maxProducts = maxProducts;
+    }
+
+    public BulkProductResponse updateProducts(String userId, BulkProductUpdateRequest request) {
+        BulkProductUpdateRequest.Changes changes = request.getChanges();
+        UpdateDefinition update = buildUpdate(changes);
+        List<String> ids = selectIds(userId, request.getSelection());
+        log.info("Attempting bulk update of {} product(s) by userId: {}", ids.size(), userId);
+        if (ids.isEmpty()) {
+            return new BulkProductResponse(0, 0, ids);
+        }
+
+        UpdateResult result = mongoTemplate.updateMulti(ownedBy(userId, ids), update, Product.class);
+        ids.forEach(productCache::evict);
+        productCountService.invalidate();
+
+        log.info("Bulk update by userId: {} matched {} and modified {} product(s)",
+                userId, result.getMatchedCount(), result.getModifiedCount());
+        return new BulkProductResponse(result.getMatchedCount(), result.getModifiedCount(), ids);
+    }
+
+    /**
+     * Records a product-deleted event per selected product in the outbox before removing them. Events
+     * for products that turn out not to have been deleted are held back and later dropped by the
+     * {@link OutboxRelay}.
+     */
+    public BulkProductResponse deleteProducts(String userId, ProductSelection selection) {
+        List<String> ids = selectIds(userId, selection);
+        log.info("Attempting bulk delete of {} product(s) by userId: {}", ids.size(), userId);
+        if (ids.isEmpty()) {
+            return new BulkProductResponse(0, 0, ids);
+        }
+
+        Map<String, ProductDeletedEvent> events = new LinkedHashMap<>();
+        ids.forEach(id -> events.put(id, new ProductDeletedEvent(id, userId)));
+        List<String> outboxIds = productOutbox.append(ProductOutbox.PRODUCT_DELETED_TOPIC, events);
+
+        DeleteResult result = mongoTemplate.remove(ownedBy(userId, ids), Product.class);
+        if (result.getDeletedCount() == 0) {
+            productOutbox.discard(outboxIds);
+        }
+        ids.forEach(productCache::evict);
+        productCountService.invalidate();
+        log.info("Bulk delete by userId: {} removed {} product(s)", userId, result.getDeletedCount());
+
+        return new BulkProductResponse(ids.size(), result.getDeletedCount(), ids);
+    }
+
+    private List<String> selectIds(String userId, ProductSelection selection) {
+        boolean byIds = selection.getIds() != null && !selection.getIds().isEmpty();
+        boolean byCategory = selection.getCategory() != null && !selection.getCategory().isBlank();
+        if (!byIds && !byCategory) {
+            throw new IllegalArgumentException("Select products by ids or category");
+        }
+
+        Criteria criteria = where("userId").is(userId);
+        if (byIds) {
+            criteria.and("_id").in(selection.getIds());
+        }
+        if (byCategory) {
+            criteria.and("category").is(selection.getCategory());
+        }
+        if (selection.getMinPrice() != null && selection.getMaxPrice() != null) {
+            criteria.and("price").gte(selection.getMinPrice()).lte(selection.getMaxPrice());
+        } else if (selection.getMinPrice() != null) {
+            criteria.and("price").gte(selection.getMinPrice());
+        } else if (selection.getMaxPrice() != null) {
+            criteria.and("price").lte(selection.getMaxPrice());
+        }
+
+        Query query = query(criteria).limit(maxProducts + 1);
+        query.fields().include("_id");
+        List<String> ids = mongoTemplate.find(query, Product.class).stream().map(Product::getId).toList();
+        if (ids.size() > maxProducts) {
+            throw new IllegalArgumentException("Selection matches more than " + maxProducts + " products");
+        }
+        return ids;
+    }
+
+    private static Query ownedBy(String userId, List<String> ids) {
+        return query(where("_id").in(ids).and("userId").is(userId));
+    }
+
+    /**
+     * Fixed values become a plain {@code $set}. A relative price change needs the current price, so it
+     * runs as an update pipeline that multiplies and rounds to cents on the server, never going below
+     * {@link #MIN_PRICE}.
+     */
+    static UpdateDefinition buildUpdate(BulkProductUpdateRequest.Changes changes) {
+        if (changes.getPrice() != null && changes.getPriceChangePercent() != null) {
+            throw new IllegalArgumentException("Set either price or priceChangePercent, not both");
+        }
+        if (changes.getPrice() == null && changes.getPriceChangePercent() == null
+                && changes.getQuantity() == null && changes.getCategory() == null) {
+            throw new IllegalArgumentException("At least one change is required");
+        }
+
+        if (changes.getPriceChangePercent() == null) {
+            Update update = new Update();
+            if (changes.getPrice() != null) {
+                update.set("price", changes.getPrice());
+            }
+            if (changes.getQuantity() != null) {
+                update.set("quantity", changes.getQuantity());
+            }
+            if (changes.getCategory() != null) {
+                update.set("category", changes.getCategory());
+            }
+            return update.set(ProductService.SNAPSHOT_PENDING_FIELD, true).inc(ProductService.VERSION_FIELD, 1);
+        }
+
+        BigDecimal factor = BigDecimal.ONE.add(changes.getPriceChangePercent().movePointLeft(2));
+        AggregationExpression rounded = ArithmeticOperators.Round.roundValueOf(
+                        ArithmeticOperators.Multiply.valueOf("price").multiplyBy(new Decimal128(factor)))
+                .place(2);
+        // A steep cut on a cheap product would otherwise round down to 0.00
+        AggregationExpression clamped = context -> new Document("$max",
+                List.of(rounded.toDocument(context), new Decimal128(MIN_PRICE)));
+        AggregationUpdate update = AggregationUpdate.update().set(SetOperation.set("price").toValue(clamped));
+        if (changes.getQuantity() != null) {
+            update.set(SetOperation.set("quantity").toValue(changes.getQuantity()));
+        }
+        if (changes.getCategory() != null) {
+            // Wrapped as a literal so that a value starting with "$" is not read as a field path
+            update.set(SetOperation.set("category").toValue(LiteralOperators.Literal.asLiteral(changes.getCategory())));
+        }
+        update.set(SetOperation.set(ProductService.SNAPSHOT_PENDING_FIELD).toValue(true));
+        return update.set(SetOperation.set(ProductService.VERSION_FIELD).toValue(ArithmeticOperators.Add
+                .valueOf(ConditionalOperators.ifNull(ProductService.VERSION_FIELD).then(0L)).add(1L)));
+    }
+}
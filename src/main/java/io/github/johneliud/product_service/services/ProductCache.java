@@ -0,0 +1,75 @@
+package io.github.johneliud.product_service.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.johneliud.product_service.models.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for product documents, keyed by product ID.
+ * Entries are evicted by size and by time since they were written; hit, miss and
+ * eviction statistics are published under the {@code products} cache metrics.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+    private final Cache<String, Product> cache;
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.ttl:10m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        log.info("Product cache initialized - maxSize: {}, ttl: {}", maxSize, ttl);
+    }
+
+    /**
+     * Returns the cached product or loads it with {@code loader}. Missing products are not cached.
+     */
+    public Optional<Product> get(String id, Function<String, Optional<Product>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Returns the product only if it is cached, without loading it.
+     */
+    public Optional<Product> getIfPresent(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    /**
+     * Returns the cached products among {@code ids} and loads all of the others with one call to
+     * {@code loader}. IDs the loader does not return are absent from the result and not cached.
+     */
+    public Map<String, Product> getAll(Collection<String> ids, Function<Set<String>, Map<String, Product>> loader) {
+        return cache.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+    }
+
+    public void put(Product product) {
+        cache.put(product.getId(), product);
+    }
+
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.johneliud.product_service.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.johneliud.product_service.models.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Supplies total counts for paged listings without counting the filtered set on every page.
+ * The unfiltered total comes from the collection metadata; filtered totals are cached briefly
+ * per normalized filter and dropped whenever products are written, or, for stock decrements, when a
+ * product sells out.
+ */
+@Component
+@Slf4j
+public class ProductCountService {
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Long> filteredCounts;
+
+    public ProductCountService(MongoTemplate mongoTemplate,
+                               @Value("${product.count-cache.max-size:10000}") long maxSize,
+                               @Value("${product.count-cache.ttl:30s}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.filteredCounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Total of the whole filtered set. Cursor pages report the same total as the first page, since
+     * keyset criteria never take part in the count.
+     */
+    public long count(ProductFilter filter) {
+        if (filter.isUnfiltered()) {
+            return mongoTemplate.estimatedCount(Product.class);
+        }
+        return filteredCounts.get(filter.normalizedKey(), key -> {
+            log.debug("Counting products for filter: {}", key);
+            return mongoTemplate.count(ProductQueries.buildFilterQuery(filter), Product.class);
+        });
+    }
+
+    /**
+     * Returns the cached total of a filtered listing, or {@code null}, for callers that count on
+     * their own (such as the reactive read path) and report the result with {@link #store}.
+     */
+    public Long cached(ProductFilter filter) {
+        return filteredCounts.getIfPresent(filter.normalizedKey());
+    }
+
+    public void store(ProductFilter filter, long count) {
+        filteredCounts.put(filter.normalizedKey(), count);
+    }
+
+    public void invalidate() {
+        filteredCounts.invalidateAll();
+    }
+}
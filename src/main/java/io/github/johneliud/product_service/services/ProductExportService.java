@@ -0,0 +1,144 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.models.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Streams products straight from a MongoDB cursor to the response body. Documents are fetched in
+ * batches of {@code product.export.batch-size} in {@code _id} order and written through a small
+ * buffer, so memory stays constant however many products are exported, and a slow client blocks the
+ * cursor instead of letting rows pile up.
+ */
+@Service
+@Slf4j
+public class ProductExportService {
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ProductExportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                                @Value("${product.export.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Validates the request up front, so bad parameters are rejected before the response is
+     * committed, and returns the body that runs the export. {@code sellerId} limits the export to one
+     * seller; {@code fields} accepts the same values as the listing endpoints and defaults to all.
+     */
+    public StreamingResponseBody export(String sellerId, ProductFileFormat format, String fields) {
+        Set<String> selectedFields = fields == null || fields.isBlank()
+                ? ProductFields.ALL : ProductFields.parse(fields);
+        ProductFilter filter = new ProductFilter(null, null, null, null, false, sellerId);
+
+        return outputStream -> {
+            Query query = ProductQueries.buildFilterQuery(filter)
+                    .with(Sort.by(Sort.Direction.ASC, ProductQueries.ID_FIELD))
+                    .cursorBatchSize(batchSize);
+            ProductFields.project(query, selectedFields, ProductQueries.ID_FIELD);
+
+            long rows;
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                rows = format == ProductFileFormat.CSV
+                        ? writeCsv(products, selectedFields, outputStream)
+                        : writeNdjson(products, selectedFields, outputStream);
+            }
+            log.info("Exported {} product(s) as {} (sellerId: {})", rows, format, sellerId);
+        };
+    }
+
+    private long writeNdjson(Stream<Product> products, Set<String> fields, OutputStream outputStream) {
+        long rows = 0;
+        // The container closes the response stream once the body has been written
+        try (JsonGenerator generator = objectMapper.writer()
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .createGenerator(outputStream)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                generator.writePOJO(ProductFields.toResponse(product, fields));
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Stream<Product> products, Set<String> fields, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(String.join(",", fields));
+        writer.write("\r\n");
+        long rows = 0;
+        for (Product product : (Iterable<Product>) products::iterator) {
+            ProductResponse response = ProductFields.toResponse(product, fields);
+            boolean first = true;
+            for (String field : fields) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writer.write(csvValue(csvField(response, field)));
+            }
+            writer.write("\r\n");
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static Object csvField(ProductResponse response, String field) {
+        return switch (field) {
+            case "id" -> response.getId();
+            case "name" -> response.getName();
+            case "description" -> response.getDescription();
+            case "price" -> response.getPrice() == null ? null : response.getPrice().toPlainString();
+            case "quantity" -> response.getQuantity();
+            case "userId" -> response.getUserId();
+            case "category" -> response.getCategory();
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+    }
+
+    /**
+     * Quotes values containing separators, quotes or line breaks as described in RFC 4180.
+     */
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
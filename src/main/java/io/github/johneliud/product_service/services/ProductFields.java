@@ -0,0 +1,90 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.models.Product;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves the {@code fields} parameter of the listing endpoints into the set of product fields to
+ * fetch and return. Accepts the {@code summary} (default) and {@code full} views or a comma-separated
+ * list of field names; {@code id} is always included.
+ */
+final class ProductFields {
+    static final String VIEW_SUMMARY = "summary";
+    static final String VIEW_FULL = "full";
+
+    static final Set<String> ALL = Collections.unmodifiableSet(new LinkedHashSet<>(
+            List.of("id", "name", "description", "price", "quantity", "userId", "category")));
+    static final Set<String> SUMMARY = Collections.unmodifiableSet(new LinkedHashSet<>(
+            List.of("id", "name", "price", "quantity")));
+
+    private ProductFields() {
+    }
+
+    static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank() || VIEW_SUMMARY.equalsIgnoreCase(fields.trim())) {
+            return SUMMARY;
+        }
+        if (VIEW_FULL.equalsIgnoreCase(fields.trim())) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> {
+                    if (!ALL.contains(field)) {
+                        throw new IllegalArgumentException("Unknown field: " + field);
+                    }
+                    selected.add(field);
+                });
+        return selected;
+    }
+
+    /**
+     * Limits the query to the selected fields plus the sort field, which the next-page cursor needs,
+     * and the version, which the listing ETag is computed from.
+     */
+    static void project(Query query, Set<String> fields, String sortField) {
+        if (fields.equals(ALL)) {
+            withoutInternalFields(query);
+            return;
+        }
+        fields.stream()
+                .filter(field -> !field.equals("id"))
+                .forEach(field -> query.fields().include(field));
+        query.fields().include(ProductService.VERSION_FIELD);
+        if (ALL.contains(sortField)) {
+            query.fields().include(sortField);
+        }
+    }
+
+    /**
+     * Excludes {@code stockBatches} from reads of whole products; only the bulk stock decrement reads
+     * it back.
+     */
+    static Query withoutInternalFields(Query query) {
+        query.fields().exclude(ProductService.STOCK_BATCHES_FIELD);
+        return query;
+    }
+
+    static ProductResponse toResponse(Product product, Set<String> fields) {
+        return new ProductResponse(
+                product.getId(),
+                fields.contains("name") ? product.getName() : null,
+                fields.contains("description") ? product.getDescription() : null,
+                fields.contains("price") ? product.getPrice() : null,
+                fields.contains("quantity") ? product.getQuantity() : null,
+                fields.contains("userId") ? product.getUserId() : null,
+                fields.contains("category") ? product.getCategory() : null,
+                product.getVersion()
+        );
+    }
+}
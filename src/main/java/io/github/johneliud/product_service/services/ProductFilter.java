@@ -0,0 +1,63 @@
+package io.github.johneliud.product_service.services;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Listing filter shared by the public catalog and the seller's own product listing.
+ */
+@Value
+public class ProductFilter {
+    String search;
+    BigDecimal minPrice;
+    BigDecimal maxPrice;
+    String category;
+    boolean availableOnly;
+    String sellerId;
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+
+    public boolean isUnfiltered() {
+        return !hasSearch() && minPrice == null && maxPrice == null && isBlank(category)
+                && !availableOnly && isBlank(sellerId);
+    }
+
+    /**
+     * Canonical form of the filter: equivalent filters (differing only in case, surrounding
+     * whitespace or price scale) produce the same key. Every part is length-prefixed, so values
+     * containing separators cannot make two different filters collide.
+     */
+    public String normalizedKey() {
+        StringBuilder key = new StringBuilder();
+        appendPart(key, hasSearch() ? search.trim().toLowerCase(Locale.ROOT) : null);
+        appendPart(key, minPrice != null ? minPrice.stripTrailingZeros().toPlainString() : null);
+        appendPart(key, maxPrice != null ? maxPrice.stripTrailingZeros().toPlainString() : null);
+        appendPart(key, normalizedCategory());
+        appendPart(key, String.valueOf(availableOnly));
+        appendPart(key, isBlank(sellerId) ? null : sellerId);
+        return key.toString();
+    }
+
+    /**
+     * Trimmed category, matched case-insensitively by the listing query; {@code null} when blank.
+     */
+    public String normalizedCategory() {
+        return isBlank(category) ? null : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void appendPart(StringBuilder key, String part) {
+        if (part == null) {
+            key.append('-');
+        } else {
+            key.append(part.length()).append(':').append(part);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
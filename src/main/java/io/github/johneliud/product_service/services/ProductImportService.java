@@ -0,0 +1,250 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.bulk.BulkWriteError;
+import io.github.johneliud.product_service.dto.ProductImportResult;
+import io.github.johneliud.product_service.dto.ProductImportSummary;
+import io.github.johneliud.product_service.dto.ProductRequest;
+import io.github.johneliud.product_service.models.Product;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports products from an NDJSON or CSV request body. Rows are parsed and validated one at a time
+ * against the {@link ProductRequest} constraints, valid rows are inserted in unordered bulk writes of
+ * {@code product.import.batch-size}, and a result line per row is streamed back after each batch,
+ * so memory use is bounded by the batch size rather than by the size of the upload.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> CSV_REQUIRED_COLUMNS = Set.of("name", "description", "price", "quantity");
+    private static final Set<String> CSV_COLUMNS = Set.of("name", "description", "price", "quantity", "category");
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final Validator validator;
+    private final ProductCountService productCountService;
+    private final int batchSize;
+
+    public ProductImportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper, Validator validator,
+                                ProductCountService productCountService,
+                                @Value("${product.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(ProductRequest.class);
+        this.validator = validator;
+        this.productCountService = productCountService;
+        this.batchSize = batchSize;
+    }
+
+    private record ParsedRow(long row, ProductRequest request, Map<String, String> errors) {
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        /** Returns the next row, or {@code null} once the input is exhausted. */
+        ParsedRow next() throws IOException;
+    }
+
+    private record PendingProduct(long row, Product product) {
+    }
+
+    /**
+     * Opens the upload and, for CSV, reads and checks the header row before anything is written, so
+     * a malformed header is rejected with 400. The returned body imports the remaining rows for
+     * {@code userId}.
+     */
+    public StreamingResponseBody importProducts(String userId, ProductFileFormat format, InputStream input)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowSource rows = format == ProductFileFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        return outputStream -> {
+            ProductImportSummary summary = new ProductImportSummary();
+            try (reader; JsonGenerator generator = objectMapper.writer()
+                    .without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .createGenerator(outputStream)) {
+                List<PendingProduct> batch = new ArrayList<>(batchSize);
+                ParsedRow parsed;
+                while ((parsed = rows.next()) != null) {
+                    summary.setRows(summary.getRows() + 1);
+                    Map<String, String> errors = parsed.errors() != null ? parsed.errors() : validate(parsed.request());
+                    if (!errors.isEmpty()) {
+                        summary.setInvalid(summary.getInvalid() + 1);
+                        generator.writePOJO(new ProductImportResult(parsed.row(), ProductImportResult.Status.INVALID, null, errors));
+                        continue;
+                    }
+                    batch.add(new PendingProduct(parsed.row(), toProduct(parsed.request(), userId)));
+                    if (batch.size() == batchSize) {
+                        insertBatch(batch, summary, generator);
+                    }
+                }
+                insertBatch(batch, summary, generator);
+                generator.writePOJO(Map.of("summary", summary));
+                generator.writeRaw('\n');
+            } finally {
+                if (summary.getCreated() > 0) {
+                    productCountService.invalidate();
+                }
+                log.info("Imported products for userId: {} - rows: {}, created: {}, invalid: {}, failed: {}",
+                        userId, summary.getRows(), summary.getCreated(), summary.getInvalid(), summary.getFailed());
+            }
+        };
+    }
+
+    private void insertBatch(List<PendingProduct> batch, ProductImportSummary summary, JsonGenerator generator) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)
+                    .insert(batch.stream().map(PendingProduct::product).toList())
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Failed to insert import batch of {} product(s): {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                failures.put(i, "Insert failed");
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingProduct pending = batch.get(i);
+            String failure = failures.get(i);
+            if (failure == null) {
+                summary.setCreated(summary.getCreated() + 1);
+                generator.writePOJO(new ProductImportResult(
+                        pending.row(), ProductImportResult.Status.CREATED, pending.product().getId(), null));
+            } else {
+                summary.setFailed(summary.getFailed() + 1);
+                generator.writePOJO(new ProductImportResult(
+                        pending.row(), ProductImportResult.Status.FAILED, null, Map.of("row", failure)));
+            }
+        }
+        generator.flush();
+        batch.clear();
+    }
+
+    private Map<String, String> validate(ProductRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<ProductRequest> violation : validator.validate(request)) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    /** IDs are assigned up front so that each created row can be reported without reading it back. */
+    private static Product toProduct(ProductRequest request, String userId) {
+        return new Product(new ObjectId().toHexString(), request.getName(), request.getDescription(),
+                request.getPrice(), request.getQuantity(), userId, request.getCategory(), 0L, true);
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber[0]++;
+            } while (line.isBlank());
+            try {
+                return new ParsedRow(lineNumber[0], requestReader.readValue(line), null);
+            } catch (JacksonException e) {
+                return new ParsedRow(lineNumber[0], null, Map.of("row", "Malformed JSON: " + e.getOriginalMessage()));
+            }
+        };
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header row is required");
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+        for (String column : columns) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+        }
+        if (!columns.containsAll(CSV_REQUIRED_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain " + CSV_REQUIRED_COLUMNS.stream().sorted().toList());
+        }
+
+        long[] rowNumber = {0};
+        return () -> {
+            List<String> record = records.next();
+            if (record == null) {
+                return null;
+            }
+            rowNumber[0]++;
+            if (record.size() != columns.size()) {
+                return new ParsedRow(rowNumber[0], null, Map.of("row",
+                        "Expected " + columns.size() + " columns but found " + record.size()));
+            }
+
+            ProductRequest request = new ProductRequest();
+            Map<String, String> errors = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = record.get(i);
+                switch (columns.get(i)) {
+                    case "name" -> request.setName(value);
+                    case "description" -> request.setDescription(value);
+                    case "category" -> request.setCategory(value.isEmpty() ? null : value);
+                    case "price" -> {
+                        try {
+                            request.setPrice(value.isBlank() ? null : new BigDecimal(value.trim()));
+                        } catch (NumberFormatException e) {
+                            errors.put("price", "Price must be a number");
+                        }
+                    }
+                    case "quantity" -> {
+                        try {
+                            request.setQuantity(value.isBlank() ? null : Integer.valueOf(value.trim()));
+                        } catch (NumberFormatException e) {
+                            errors.put("quantity", "Quantity must be a whole number");
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unexpected column: " + columns.get(i));
+                }
+            }
+            return new ParsedRow(rowNumber[0], request, errors.isEmpty() ? null : errors);
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Creates the indexes the product queries rely on once the application is ready, and optionally
+ * verifies with {@code explain} that each canonical listing query shape is served by an index.
+ *
+ * <p>Every cursor-pageable sort field gets a {@code {field, _id}} index for the public listing and a
+ * {@code {userId, field, _id}} index for seller listings (equality before sort). Descending sorts
+ * walk the same indexes backwards. Range filters on price and quantity are applied while walking the
+ * sort index rather than sorting in memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIndexManager {
+    static final String TEXT_INDEX_NAME = "product_text";
+    static final String SNAPSHOT_PENDING_INDEX_NAME = "product_snapshot_pending";
+
+    /** Matches {@code size + 1}, the limit the listing queries over-fetch with at the default page size. */
+    private static final int EXPLAIN_LIMIT = 21;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    @Value("${product.indexes.verify:warn}")
+    private VerifyMode verifyMode;
+
+    public enum VerifyMode { OFF, WARN, FAIL }
+
+    /**
+     * A listing query as {@code ProductService} would build it. Relevance-ranked text searches sort by
+     * score, which no index can provide, so only a collection scan is reported for them.
+     */
+    record QueryShape(String name, ProductFilter filter, String sortBy, String sortDir) {
+        boolean allowsInMemorySort() {
+            return ProductQueries.isRelevanceSort(filter, sortBy);
+        }
+    }
+
+    public record PlanReport(String shape, List<String> stages, List<String> problems) {
+        public boolean isIndexed() {
+            return problems.isEmpty();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!ensureOnStartup) {
+            log.info("Skipping product index creation (product.indexes.ensure-on-startup=false)");
+        } else {
+            ensureIndexes();
+        }
+        if (verifyMode != VerifyMode.OFF) {
+            List<PlanReport> unindexed = verifyQueryPlans().stream().filter(report -> !report.isIndexed()).toList();
+            if (!unindexed.isEmpty() && verifyMode == VerifyMode.FAIL) {
+                throw new IllegalStateException("Product query shapes without index support: "
+                        + unindexed.stream().map(PlanReport::shape).toList());
+            }
+        }
+    }
+
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        for (IndexDefinition index : indexDefinitions()) {
+            try {
+                String name = indexOps.createIndex(index);
+                log.info("Ensured product index: {}", name);
+            } catch (Exception e) {
+                log.error("Failed to create product index {}: {}", index.getIndexKeys().toJson(), e.getMessage());
+            }
+        }
+    }
+
+    static List<IndexDefinition> indexDefinitions() {
+        List<IndexDefinition> indexes = new ArrayList<>();
+        // Only one text index is allowed per collection; it backs the search parameter
+        indexes.add(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .named(TEXT_INDEX_NAME)
+                .onField("name", 10F)
+                .onField("category", 5F)
+                .onField("description", 1F)
+                .build());
+        // Only products waiting for their snapshot to be published are indexed, so the index stays tiny
+        indexes.add(new Index()
+                .on(ProductService.SNAPSHOT_PENDING_FIELD, Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(where(ProductService.SNAPSHOT_PENDING_FIELD).is(true)))
+                .named(SNAPSHOT_PENDING_INDEX_NAME));
+        for (String field : ProductQueries.KEYSET_SORT_FIELDS.stream().sorted().toList()) {
+            indexes.add(new Index()
+                    .on(field, Sort.Direction.ASC)
+                    .on(ProductQueries.ID_FIELD, Sort.Direction.ASC)
+                    .named("product_" + field + "_id"));
+            indexes.add(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .on(field, Sort.Direction.ASC)
+                    .on(ProductQueries.ID_FIELD, Sort.Direction.ASC)
+                    .named("product_userId_" + field + "_id"));
+        }
+        return indexes;
+    }
+
+    static List<QueryShape> canonicalShapes() {
+        List<QueryShape> shapes = new ArrayList<>();
+        ProductFilter unfiltered = new ProductFilter(null, null, null, null, false, null);
+        for (String field : ProductQueries.KEYSET_SORT_FIELDS.stream().sorted().toList()) {
+            shapes.add(new QueryShape("sort:" + field, unfiltered, field, "asc"));
+            shapes.add(new QueryShape("seller+sort:" + field,
+                    new ProductFilter(null, null, null, null, false, "seller"), field, "asc"));
+        }
+        shapes.add(new QueryShape("default", unfiltered, null, null));
+        shapes.add(new QueryShape("sort:name desc", unfiltered, "name", "desc"));
+        shapes.add(new QueryShape("price-range+sort:price",
+                new ProductFilter(null, BigDecimal.ONE, BigDecimal.TEN, null, false, null), "price", "asc"));
+        shapes.add(new QueryShape("available+sort:quantity",
+                new ProductFilter(null, null, null, null, true, null), "quantity", "desc"));
+        shapes.add(new QueryShape("category+sort:category",
+                new ProductFilter(null, null, null, "books", false, null), "category", "asc"));
+        shapes.add(new QueryShape("search+relevance",
+                new ProductFilter("phone", null, null, null, false, null), null, null));
+        return shapes;
+    }
+
+    /**
+     * Runs {@code explain} for every canonical query shape and logs the ones whose winning plan
+     * scans the collection or sorts in memory.
+     */
+    public List<PlanReport> verifyQueryPlans() {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Product.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+
+        List<PlanReport> reports = new ArrayList<>();
+        for (QueryShape shape : canonicalShapes()) {
+            try {
+                Query query = ProductQueries.buildFilterQuery(shape.filter());
+                query.with(ProductQueries.resolveSort(query, shape.sortBy(), shape.sortDir()));
+                Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+                Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+                Document fields = queryMapper.getMappedFields(query.getFieldsObject(), entity);
+                Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                        .find(filter).projection(fields).sort(sort).limit(EXPLAIN_LIMIT).explain();
+
+                Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+                List<String> stages = new ArrayList<>(planStages(winningPlan));
+                PlanReport report = new PlanReport(shape.name(), stages, planProblems(stages, shape.allowsInMemorySort()));
+                if (report.isIndexed()) {
+                    log.info("Query shape {} uses plan {}", shape.name(), stages);
+                } else {
+                    log.warn("Query shape {} is not index-backed ({}): plan {}", shape.name(), report.problems(), stages);
+                }
+                reports.add(report);
+            } catch (Exception e) {
+                log.error("Failed to explain query shape {}: {}", shape.name(), e.getMessage());
+                reports.add(new PlanReport(shape.name(), List.of(), List.of("explain failed: " + e.getMessage())));
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Collects every {@code stage} in a winning plan, covering both the classic plan tree and the
+     * {@code queryPlan} wrapper used by the slot-based engine.
+     */
+    static Set<String> planStages(Object plan) {
+        Set<String> stages = new LinkedHashSet<>();
+        if (plan instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> stages.addAll(planStages(value)));
+        } else if (plan instanceof List<?> list) {
+            list.forEach(value -> stages.addAll(planStages(value)));
+        }
+        return stages;
+    }
+
+    static List<String> planProblems(List<String> stages, boolean allowInMemorySort) {
+        List<String> problems = new ArrayList<>();
+        if (stages.contains("COLLSCAN")) {
+            problems.add("COLLSCAN");
+        }
+        if (!allowInMemorySort && stages.contains("SORT")) {
+            problems.add("in-memory SORT");
+        }
+        return problems;
+    }
+}
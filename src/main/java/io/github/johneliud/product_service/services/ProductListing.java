@@ -0,0 +1,133 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.models.Product;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One listing request resolved into its MongoDB query and turned back into a page. Shared by the
+ * blocking and the reactive read paths so that both page, sort, project and build cursors the same way.
+ * <p>
+ * Listings run either by page number or, when a cursor is given, by keyset: products strictly after
+ * the cursor in (sort field, {@code _id}) order. Keyset pages cost the same at any depth because they
+ * never skip documents. Only the fields selected by {@code fields} (see {@link ProductFields}) are
+ * fetched and returned.
+ */
+final class ProductListing {
+    private final ProductFilter filter;
+    private final int page;
+    private final int size;
+    private final boolean includeTotal;
+    private final Set<String> selectedFields;
+    private final boolean relevance;
+    private final String sortField;
+    private final Sort.Direction direction;
+    private final Query query;
+
+    private ProductListing(ProductFilter filter, int page, int size, String sortBy, String sortDir,
+                           String cursor, boolean includeTotal, String fields) {
+        this.filter = filter;
+        this.page = page;
+        this.size = size;
+        this.includeTotal = includeTotal;
+        this.selectedFields = ProductFields.parse(fields);
+        this.relevance = ProductQueries.isRelevanceSort(filter, sortBy);
+        this.sortField = ProductQueries.resolveSortField(sortBy);
+        this.direction = ProductQueries.resolveDirection(sortDir);
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+
+        if (after != null) {
+            if (relevance) {
+                throw new IllegalArgumentException("Cursor pagination is not supported for relevance-ranked search");
+            }
+            if (!ProductQueries.KEYSET_SORT_FIELDS.contains(sortField)) {
+                throw new IllegalArgumentException("Unsupported sort field for cursor pagination: " + sortField);
+            }
+            if (!after.getSortBy().equals(sortField) || after.getDirection() != direction) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            this.query = ProductQueries.buildFilterQuery(filter, ProductQueries.keysetCriteria(after));
+        } else {
+            this.query = ProductQueries.buildFilterQuery(filter);
+        }
+
+        Pageable pageable = PageRequest.of(page, size, ProductQueries.resolveSort(query, sortBy, sortDir));
+        if (after != null) {
+            query.with(pageable.getSort());
+        } else {
+            query.with(pageable);
+        }
+        ProductFields.project(query, selectedFields, sortField);
+    }
+
+    static ProductListing of(ProductFilter filter, int page, int size, String sortBy, String sortDir,
+                             String cursor, boolean includeTotal, String fields) {
+        return new ProductListing(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields);
+    }
+
+    ProductFilter filter() {
+        return filter;
+    }
+
+    boolean includeTotal() {
+        return includeTotal;
+    }
+
+    /**
+     * The page query, fetching one extra product to learn whether another page follows without counting.
+     */
+    Query pageQuery() {
+        return query.limit(size + 1);
+    }
+
+    /**
+     * The query for the products of the page alone, for callers that stream them without paging metadata.
+     */
+    Query streamQuery() {
+        return query.limit(size);
+    }
+
+    ProductResponse toResponse(Product product) {
+        return ProductFields.toResponse(product, selectedFields);
+    }
+
+    /**
+     * Builds the page from the result of {@link #pageQuery()} and the total, which is
+     * {@link ProductService#UNKNOWN_TOTAL} when the caller opted out of counting.
+     */
+    PagedResponse<ProductResponse> toPage(List<Product> products, long total) {
+        boolean hasNext = products.size() > size;
+        if (hasNext) {
+            products = products.subList(0, size);
+        }
+
+        List<ProductResponse> content = products.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext && !relevance && !products.isEmpty() && ProductQueries.KEYSET_SORT_FIELDS.contains(sortField)) {
+            Product lastProduct = products.get(products.size() - 1);
+            nextCursor = new PageCursor(sortField, direction,
+                    ProductQueries.sortValue(lastProduct, sortField), lastProduct.getId()).encode();
+        }
+
+        return new PagedResponse<>(
+                content,
+                page,
+                size,
+                total,
+                includeTotal ? (int) Math.ceil((double) total / size) : (int) ProductService.UNKNOWN_TOTAL,
+                !hasNext,
+                nextCursor
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Records events in the {@code product_outbox} collection for the {@link OutboxRelay} to publish.
+ * Writing to MongoDB keeps broker latency and broker outages off the request path, and an event
+ * recorded here is retried until Kafka acknowledges it.
+ *
+ * <p>Entries are recorded before the write they announce, so they start out locked for
+ * {@code product.outbox.initial-lock}; by the time the relay can claim one, that write has normally
+ * completed or the entry has been discarded.
+ */
+@Component
+@Slf4j
+public class ProductOutbox {
+    public static final String PRODUCT_DELETED_TOPIC = "product-deleted";
+    public static final String PRODUCT_SNAPSHOTS_TOPIC = "product-snapshots";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration initialLock;
+
+    public ProductOutbox(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                         @Value("${product.outbox.initial-lock:2s}") Duration initialLock) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.initialLock = initialLock;
+    }
+
+    /**
+     * Records one event per key with a single insert and returns the outbox entry IDs.
+     */
+    public List<String> append(String topic, Map<String, ?> eventsByKey) {
+        if (eventsByKey.isEmpty()) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        Instant lockedUntil = now.plus(initialLock);
+        List<OutboxEvent> entries = new ArrayList<>(eventsByKey.size());
+        eventsByKey.forEach((key, event) -> entries.add(new OutboxEvent(null, topic, key,
+                objectMapper.writeValueAsString(event), now, lockedUntil, null, 0)));
+        List<String> ids = mongoTemplate.insert(entries, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        log.debug("Recorded {} {} event(s) in the outbox", ids.size(), topic);
+        return ids;
+    }
+
+    /**
+     * Drops entries whose accompanying write did not happen.
+     */
+    public void discard(Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(query(where("_id").in(ids)), OutboxEvent.class);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Rewrites prices still stored as strings to Decimal128, in {@code _id} order and in bounded batches,
+ * while the service keeps serving traffic. Each update is conditional on the price still holding
+ * the string that was read, so a concurrent product update is never overwritten.
+ */
+@Component
+@Slf4j
+public class ProductPriceMigration {
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final Duration batchDelay;
+
+    @Value("${product.migration.price-decimal128.enabled:true}")
+    private boolean enabled;
+
+    public ProductPriceMigration(MongoTemplate mongoTemplate,
+                                 @Value("${product.migration.price-decimal128.batch-size:500}") int batchSize,
+                                 @Value("${product.migration.price-decimal128.batch-delay:100ms}") Duration batchDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofPlatform().name("product-price-migration").daemon().start(this::migrate);
+        }
+    }
+
+    /**
+     * Runs the migration to completion and returns the number of converted prices.
+     */
+    public long migrate() {
+        String collection = mongoTemplate.getCollectionName(Product.class);
+        Object lastId = null;
+        long converted = 0;
+        long skipped = 0;
+        try {
+            while (true) {
+                Criteria pending = where("price").type(2);
+                Query batchQuery = query(lastId == null ? pending : pending.and("_id").gt(lastId))
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit(batchSize);
+                batchQuery.fields().include("_id", "price");
+                List<Document> batch = mongoTemplate.find(batchQuery, Document.class, collection);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                int updates = 0;
+                for (Document document : batch) {
+                    String price = document.getString("price");
+                    try {
+                        Decimal128 decimal = new Decimal128(new BigDecimal(price.trim()));
+                        bulk.updateOne(query(where("_id").is(document.get("_id")).and("price").is(price)),
+                                new Update().set("price", decimal));
+                        updates++;
+                    } catch (NumberFormatException e) {
+                        skipped++;
+                        log.warn("Skipping product {} with non-numeric price '{}'", document.get("_id"), price);
+                    }
+                }
+                if (updates > 0) {
+                    converted += bulk.execute().getModifiedCount();
+                }
+                lastId = batch.getLast().get("_id");
+                log.info("Price migration progress: {} converted, {} skipped", converted, skipped);
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(batchDelay);
+            }
+            log.info("Price migration finished: {} converted, {} skipped", converted, skipped);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Price migration interrupted after {} conversion(s)", converted);
+        } catch (Exception e) {
+            log.error("Price migration failed after {} conversion(s): {}", converted, e.getMessage());
+        }
+        return converted;
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the filter, sort and keyset criteria used by the product listing queries.
+ */
+final class ProductQueries {
+    static final String SORT_RELEVANCE = "relevance";
+    static final String DEFAULT_SORT_FIELD = "name";
+    static final String ID_FIELD = "_id";
+
+    /** Sort fields that can be paged with a cursor; each is paired with {@code _id} as a tiebreaker. */
+    static final Set<String> KEYSET_SORT_FIELDS = Set.of("name", "price", "quantity", "category");
+
+    private ProductQueries() {
+    }
+
+    static Query buildFilterQuery(ProductFilter filter, Criteria... additional) {
+        List<Criteria> criteriaList = new ArrayList<>();
+
+        if (filter.getMinPrice() != null) {
+            criteriaList.add(Criteria.where("price").gte(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            criteriaList.add(Criteria.where("price").lte(filter.getMaxPrice()));
+        }
+        String category = filter.normalizedCategory();
+        if (category != null) {
+            // Quoted so the match depends only on the normalized text, as the count cache key does
+            criteriaList.add(Criteria.where("category").regex(Pattern.quote(category), "i"));
+        }
+        if (filter.isAvailableOnly()) {
+            criteriaList.add(Criteria.where("quantity").gt(0));
+        }
+        if (filter.getSellerId() != null && !filter.getSellerId().isBlank()) {
+            criteriaList.add(Criteria.where("userId").is(filter.getSellerId()));
+        }
+        criteriaList.addAll(Arrays.asList(additional));
+
+        Criteria criteria = criteriaList.isEmpty() ? new Criteria()
+                : new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+
+        // $text must sit at the top level of the query, next to the remaining filters
+        if (filter.hasSearch()) {
+            TextQuery textQuery = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(filter.getSearch()));
+            textQuery.addCriteria(criteria);
+            return textQuery;
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Text searches are ranked by relevance unless an explicit sort field is requested.
+     */
+    static boolean isRelevanceSort(ProductFilter filter, String sortBy) {
+        return filter.hasSearch() && isRelevanceOrDefault(sortBy);
+    }
+
+    /**
+     * Resolves the requested sort, always ending in {@code _id} so that the order is total.
+     * Relevance ordering is applied to the text query itself and falls back to name without a search.
+     */
+    static Sort resolveSort(Query query, String sortBy, String sortDir) {
+        Sort.Direction direction = resolveDirection(sortDir);
+        if (isRelevanceOrDefault(sortBy) && query instanceof TextQuery textQuery) {
+            textQuery.sortByScore();
+            return Sort.by(Sort.Direction.ASC, ID_FIELD);
+        }
+        String field = resolveSortField(sortBy);
+        return Sort.by(direction, field).and(Sort.by(direction, ID_FIELD));
+    }
+
+    static String resolveSortField(String sortBy) {
+        return isRelevanceOrDefault(sortBy) ? DEFAULT_SORT_FIELD : sortBy;
+    }
+
+    static Sort.Direction resolveDirection(String sortDir) {
+        return "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    /**
+     * Matches the products strictly after {@code after} in (sort field, {@code _id}) order.
+     * MongoDB orders null and missing values before any other value, which the null branches mirror.
+     */
+    static Criteria keysetCriteria(PageCursor after) {
+        String field = after.getSortBy();
+        Object value = after.getValue();
+        String id = after.getId();
+
+        if (after.getDirection() == Sort.Direction.ASC) {
+            if (value == null) {
+                return new Criteria().orOperator(
+                        Criteria.where(field).is(null).and(ID_FIELD).gt(id),
+                        Criteria.where(field).ne(null));
+            }
+            return new Criteria().orOperator(
+                    Criteria.where(field).gt(value),
+                    Criteria.where(field).is(value).and(ID_FIELD).gt(id));
+        }
+        if (value == null) {
+            return Criteria.where(field).is(null).and(ID_FIELD).lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(value),
+                Criteria.where(field).is(value).and(ID_FIELD).lt(id),
+                Criteria.where(field).is(null));
+    }
+
+    static Object sortValue(Product product, String field) {
+        return switch (field) {
+            case "name" -> product.getName();
+            case "price" -> product.getPrice();
+            case "quantity" -> product.getQuantity();
+            case "category" -> product.getCategory();
+            default -> throw new IllegalArgumentException("Unsupported sort field for cursor pagination: " + field);
+        };
+    }
+
+    private static boolean isRelevanceOrDefault(String sortBy) {
+        return sortBy == null || sortBy.isBlank() || SORT_RELEVANCE.equalsIgnoreCase(sortBy);
+    }
+}
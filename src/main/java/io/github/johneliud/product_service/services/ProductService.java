@@ -1,37 +1,62 @@
 package io.github.johneliud.product_service.services;
 
+import com.mongodb.client.result.DeleteResult;
+import io.github.johneliud.product_service.dto.BatchStockUpdateRequest;
+import io.github.johneliud.product_service.dto.BatchStockUpdateResponse;
 import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductBatchResponse;
 import io.github.johneliud.product_service.dto.ProductRequest;
 import io.github.johneliud.product_service.dto.ProductResponse;
 import io.github.johneliud.product_service.event.ProductDeletedEvent;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
 import io.github.johneliud.product_service.models.Product;
 import io.github.johneliud.product_service.repositories.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
+    /** Reported as totalElements and totalPages when the caller opted out of counting. */
+    static final long UNKNOWN_TOTAL = -1;
+
+    /** Recent stock batch IDs kept on each product so bulk decrements can report per-item outcomes. */
+    static final String STOCK_BATCHES_FIELD = "stockBatches";
+    private static final int STOCK_BATCHES_KEPT = 16;
+
+    /** Optimistic-locking version, bumped by every write so that ETags change with the product. */
+    static final String VERSION_FIELD = "version";
+
+    /** Flags products whose snapshot still has to be published; set atomically with every change. */
+    static final String SNAPSHOT_PENDING_FIELD = "snapshotPending";
+
     private final ProductRepository productRepository;
-    private final KafkaTemplate<String, ProductDeletedEvent> kafkaTemplate;
+    private final ProductOutbox productOutbox;
     private final MongoTemplate mongoTemplate;
+    private final ProductCache productCache;
+    private final ProductCountService productCountService;
 
     public ProductResponse createProduct(ProductRequest request, String userId) {
         log.info("Attempting to create product for userId: {}", userId);
@@ -43,8 +68,10 @@ public class ProductService {
         product.setQuantity(request.getQuantity());
         product.setUserId(userId);
         product.setCategory(request.getCategory());
+        product.setSnapshotPending(true);
 
         Product savedProduct = productRepository.save(product);
+        productCountService.invalidate();
         log.info("Product created successfully with ID: {} for userId: {}", savedProduct.getId(), userId);
 
         return toProductResponse(savedProduct);
@@ -52,40 +79,24 @@ public class ProductService {
 
     public PagedResponse<ProductResponse> getAllProductsPaged(
             int page, int size, String search, BigDecimal minPrice, BigDecimal maxPrice,
-            String sortBy, String sortDir, String category, boolean availableOnly, String sellerId) {
+            String sortBy, String sortDir, String category, boolean availableOnly, String sellerId,
+            String cursor, boolean includeTotal, String fields) {
 
         log.info("Fetching paged products - page: {}, size: {}, search: {}, minPrice: {}, maxPrice: {}, " +
-                "category: {}, availableOnly: {}, sellerId: {}, sortBy: {}, sortDir: {}",
-                page, size, search, minPrice, maxPrice, category, availableOnly, sellerId, sortBy, sortDir);
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(
-                "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy));
-
-        Query query = buildFilterQuery(search, minPrice, maxPrice, category, availableOnly, sellerId);
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Product.class);
-        List<Product> products = mongoTemplate.find(query.with(pageable), Product.class);
-        Page<Product> productPage = new PageImpl<>(products, pageable, total);
-
-        List<ProductResponse> content = productPage.getContent().stream()
-                .map(this::toProductResponse)
-                .collect(Collectors.toList());
+                "category: {}, availableOnly: {}, sellerId: {}, sortBy: {}, sortDir: {}, cursor: {}",
+                page, size, search, minPrice, maxPrice, category, availableOnly, sellerId, sortBy, sortDir, cursor);
 
-        log.info("Retrieved {} products (page {}/{})", content.size(), page + 1, productPage.getTotalPages());
+        ProductFilter filter = new ProductFilter(search, minPrice, maxPrice, category, availableOnly, sellerId);
+        PagedResponse<ProductResponse> response = findPaged(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields);
 
-        return new PagedResponse<>(
-                content,
-                productPage.getNumber(),
-                productPage.getSize(),
-                productPage.getTotalElements(),
-                productPage.getTotalPages(),
-                productPage.isLast()
-        );
+        log.info("Retrieved {} products (page {}/{})", response.getContent().size(), page + 1, response.getTotalPages());
+        return response;
     }
 
     public ProductResponse getProductById(String id) {
         log.info("Fetching product by ID: {}", id);
 
-        Product product = productRepository.findById(id)
+        Product product = productCache.get(id, productRepository::findProductById)
                 .orElseThrow(() -> {
                     log.warn("Product not found with ID: {}", id);
                     return new IllegalArgumentException("Product not found");
@@ -95,57 +106,113 @@ public class ProductService {
         return toProductResponse(product);
     }
 
-    public ProductResponse updateProduct(String id, ProductRequest request, String userId) {
-        log.info("Attempting to update product ID: {} by userId: {}", id, userId);
-
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Product update failed: Product not found - {}", id);
-                    return new IllegalArgumentException("Product not found");
-                });
+    /**
+     * Looks up several products at once: cached products are served from memory and all others are
+     * read with a single {@code $in} query. Results follow the order of {@code ids}.
+     */
+    public ProductBatchResponse getProductsByIds(List<String> ids) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        log.info("Fetching {} product(s) by ID", requested.size());
+
+        Map<String, Product> found = productCache.getAll(requested, missing -> {
+            Map<String, Product> loaded = new HashMap<>();
+            productRepository.findProductsByIdIn(missing).forEach(product -> loaded.put(product.getId(), product));
+            return loaded;
+        });
+
+        List<ProductResponse> products = new ArrayList<>(found.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(toProductResponse(product));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        log.info("Found {} of {} requested product(s)", products.size(), requested.size());
+        return new ProductBatchResponse(products, missingIds);
+    }
 
-        if (!product.getUserId().equals(userId)) {
+    /**
+     * Updates the product in one round trip: {@code _id} and {@code userId} are both part of the
+     * predicate and only the editable fields are {@code $set}, so concurrent stock decrements are not
+     * overwritten. When {@code expectedVersion} is given (from {@code If-Match}) the version is part of
+     * the predicate as well. Only when nothing matched is a second read made to tell "not found",
+     * "not owner" and a stale version apart.
+     */
+    public ProductResponse updateProduct(String id, ProductRequest request, String userId, Long expectedVersion) {
+        log.info("Attempting to update product ID: {} by userId: {}, expectedVersion: {}", id, userId, expectedVersion);
+
+        Query query = ProductFields.withoutInternalFields(ownedProduct(id, userId));
+        if (expectedVersion != null) {
+            // Products written before versioning have no version field and count as version 0
+            query.addCriteria(expectedVersion == 0
+                    ? new Criteria().orOperator(Criteria.where(VERSION_FIELD).is(0L), Criteria.where(VERSION_FIELD).exists(false))
+                    : Criteria.where(VERSION_FIELD).is(expectedVersion));
+        }
+        Update update = new Update()
+                .set("name", request.getName())
+                .set("description", request.getDescription())
+                .set("price", request.getPrice())
+                .set("quantity", request.getQuantity())
+                .set("category", request.getCategory())
+                .set(SNAPSHOT_PENDING_FIELD, true)
+                .inc(VERSION_FIELD, 1);
+        Product updatedProduct = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+
+        if (updatedProduct == null) {
+            Product current = productRepository.findProductById(id).orElseThrow(() -> {
+                log.warn("Product update failed: Product not found - {}", id);
+                return new IllegalArgumentException("Product not found");
+            });
+            if (userId.equals(current.getUserId())) {
+                log.warn("Product update failed: version {} of product {} is stale (current: {})",
+                        expectedVersion, id, current.getVersion());
+                throw new PreconditionFailedException("Product has been modified by another request");
+            }
             log.warn("Product update failed: User {} does not own product {}", userId, id);
             throw new IllegalArgumentException("You do not have permission to update this product");
         }
 
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setQuantity(request.getQuantity());
-        product.setCategory(request.getCategory());
-
-        Product updatedProduct = productRepository.save(product);
+        productCache.put(updatedProduct);
+        productCountService.invalidate();
         log.info("Product updated successfully: {}", id);
 
         return toProductResponse(updatedProduct);
     }
 
+    /**
+     * Deletes the product with a single {@code deleteOne} predicated on {@code _id} and {@code userId};
+     * like {@link #updateProduct}, the ownership check only costs a read when nothing was deleted.
+     * The product-deleted event is recorded in the outbox first and dropped again if nothing was
+     * deleted, so a crash between the two writes cannot lose the event.
+     */
     public void deleteProduct(String id, String userId) {
         log.info("Attempting to delete product ID: {} by userId: {}", id, userId);
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Product deletion failed: Product not found - {}", id);
-                    return new IllegalArgumentException("Product not found");
-                });
+        List<String> outboxIds = productOutbox.append(ProductOutbox.PRODUCT_DELETED_TOPIC,
+                Map.of(id, new ProductDeletedEvent(id, userId)));
+        DeleteResult result = mongoTemplate.remove(ownedProduct(id, userId), Product.class);
 
-        if (!product.getUserId().equals(userId)) {
+        if (result.getDeletedCount() == 0) {
+            productOutbox.discard(outboxIds);
+            if (!productRepository.existsById(id)) {
+                log.warn("Product deletion failed: Product not found - {}", id);
+                throw new IllegalArgumentException("Product not found");
+            }
             log.warn("Product deletion failed: User {} does not own product {}", userId, id);
             throw new IllegalArgumentException("You do not have permission to delete this product");
         }
 
-        productRepository.deleteById(id);
+        productCache.evict(id);
+        productCountService.invalidate();
         log.info("Product deleted successfully: {}", id);
+    }
 
-        // Do not fail the delete operation if Kafka publish fails
-        try {
-            ProductDeletedEvent event = new ProductDeletedEvent(id, userId);
-            kafkaTemplate.send("product-deleted", event);
-            log.info("Published product-deleted event for productId: {}", id);
-        } catch (Exception e) {
-            log.error("Failed to publish product-deleted event for productId: {}, error: {}", id, e.getMessage());
-        }
+    private static Query ownedProduct(String id, String userId) {
+        return Query.query(Criteria.where("_id").is(id).and("userId").is(userId));
     }
 
     public List<ProductResponse> getSellerProducts(String userId) {
@@ -161,44 +228,28 @@ public class ProductService {
 
     public PagedResponse<ProductResponse> getSellerProductsPaged(
             String userId, int page, int size, String search, BigDecimal minPrice, BigDecimal maxPrice,
-            String sortBy, String sortDir, String category, boolean availableOnly) {
+            String sortBy, String sortDir, String category, boolean availableOnly, String cursor,
+            boolean includeTotal, String fields) {
 
         log.info("Fetching paged products for userId: {}, page: {}, size: {}, search: {}, minPrice: {}, " +
-                "maxPrice: {}, category: {}, availableOnly: {}, sortBy: {}, sortDir: {}",
-                userId, page, size, search, minPrice, maxPrice, category, availableOnly, sortBy, sortDir);
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(
-                "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy));
+                "maxPrice: {}, category: {}, availableOnly: {}, sortBy: {}, sortDir: {}, cursor: {}",
+                userId, page, size, search, minPrice, maxPrice, category, availableOnly, sortBy, sortDir, cursor);
 
-        Query query = buildFilterQuery(search, minPrice, maxPrice, category, availableOnly, userId);
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Product.class);
-        List<Product> products = mongoTemplate.find(query.with(pageable), Product.class);
-        Page<Product> productPage = new PageImpl<>(products, pageable, total);
-
-        List<ProductResponse> content = productPage.getContent().stream()
-                .map(this::toProductResponse)
-                .collect(Collectors.toList());
+        ProductFilter filter = new ProductFilter(search, minPrice, maxPrice, category, availableOnly, userId);
+        PagedResponse<ProductResponse> response = findPaged(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields);
 
         log.info("Retrieved {} products (page {}/{}) for userId: {}",
-                content.size(), page + 1, productPage.getTotalPages(), userId);
-
-        return new PagedResponse<>(
-                content,
-                productPage.getNumber(),
-                productPage.getSize(),
-                productPage.getTotalElements(),
-                productPage.getTotalPages(),
-                productPage.isLast()
-        );
+                response.getContent().size(), page + 1, response.getTotalPages(), userId);
+        return response;
     }
 
     public void decrementStock(String productId, int quantity) {
         log.info("Attempting to decrement stock for productId: {} by {}", productId, quantity);
 
-        Query query = Query.query(
+        Query query = ProductFields.withoutInternalFields(Query.query(
                 Criteria.where("_id").is(productId).and("quantity").gte(quantity)
-        );
-        Update update = new Update().inc("quantity", -quantity);
+        ));
+        Update update = new Update().inc("quantity", -quantity).inc(VERSION_FIELD, 1).set(SNAPSHOT_PENDING_FIELD, true);
         Product previous = mongoTemplate.findAndModify(query, update, Product.class);
 
         if (previous == null) {
@@ -211,41 +262,122 @@ public class ProductService {
             throw new IllegalArgumentException("Insufficient stock for product: " + productId);
         }
 
+        productCache.evict(productId);
+        // Only availableOnly totals depend on stock, and they change only when a product sells out
+        if (previous.getQuantity() > 0 && previous.getQuantity() <= quantity) {
+            productCountService.invalidate();
+        }
+
         log.info("Stock decremented for productId: {} by {}. Previous quantity: {}", productId, quantity, previous.getQuantity());
     }
 
-    private Query buildFilterQuery(String search, BigDecimal minPrice, BigDecimal maxPrice,
-                                   String category, boolean availableOnly, String sellerId) {
-        List<Criteria> criteriaList = new ArrayList<>();
-
-        if (search != null && !search.isBlank()) {
-            criteriaList.add(new Criteria().orOperator(
-                    Criteria.where("name").regex(search, "i"),
-                    Criteria.where("description").regex(search, "i")
-            ));
+    /**
+     * Decrements stock for several products with a single bulk write. Quantities for the same
+     * product are combined first, so every product is updated at most once.
+     * <p>
+     * Each update is guarded by {@code quantity >= requested} and tags the document with a batch
+     * ID. When fewer products matched than were requested, one follow-up read tells the outcomes
+     * apart: tagged products were applied, missing ones were not found and the rest had
+     * insufficient stock.
+     * <p>
+     * An update whose guard matches nothing is not a write error, so {@code ordered} does not change
+     * the outcome of missing products or insufficient stock. It only matters when the server rejects a
+     * write: an ordered bulk write stops there, an unordered one still attempts the remaining updates.
+     * In that case the exception is rethrown after the cached copies of all requested products are
+     * evicted, since some of them may already have been decremented.
+     */
+    public BatchStockUpdateResponse decrementStockBatch(List<BatchStockUpdateRequest.Item> items, boolean ordered) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (BatchStockUpdateRequest.Item item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
-        if (minPrice != null) {
-            criteriaList.add(Criteria.where("price").gte(minPrice));
+        log.info("Attempting to decrement stock for {} product(s) in one bulk write (ordered: {})",
+                quantities.size(), ordered);
+
+        String batchId = UUID.randomUUID().toString();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(
+                ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, Product.class);
+        quantities.forEach((productId, quantity) -> bulkOps.updateOne(
+                Query.query(Criteria.where("_id").is(productId).and("quantity").gte(quantity)),
+                new Update().inc("quantity", -quantity).inc(VERSION_FIELD, 1).set(SNAPSHOT_PENDING_FIELD, true)
+                        .push(STOCK_BATCHES_FIELD).slice(-STOCK_BATCHES_KEPT).each(batchId)));
+        int matched;
+        try {
+            matched = bulkOps.execute().getMatchedCount();
+        } catch (DataAccessException e) {
+            log.error("Stock batch {} failed, some products may already be decremented: {}", batchId, e.getMessage());
+            quantities.keySet().forEach(productCache::evict);
+            productCountService.invalidate();
+            throw e;
         }
-        if (maxPrice != null) {
-            criteriaList.add(Criteria.where("price").lte(maxPrice));
+
+        Map<String, BatchStockUpdateResponse.Status> statuses = new HashMap<>();
+        if (matched < quantities.size()) {
+            statuses = classifyStockBatch(quantities.keySet(), batchId);
         }
-        if (category != null && !category.isBlank()) {
-            criteriaList.add(Criteria.where("category").regex(category, "i"));
+
+        List<BatchStockUpdateResponse.ItemResult> results = new ArrayList<>();
+        List<String> applied = new ArrayList<>(matched);
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            BatchStockUpdateResponse.Status status =
+                    statuses.getOrDefault(entry.getKey(), BatchStockUpdateResponse.Status.APPLIED);
+            if (status == BatchStockUpdateResponse.Status.APPLIED) {
+                productCache.evict(entry.getKey());
+                applied.add(entry.getKey());
+            } else {
+                log.warn("Stock decrement failed for productId: {}, requested: {}, status: {}",
+                        entry.getKey(), entry.getValue(), status);
+            }
+            results.add(new BatchStockUpdateResponse.ItemResult(entry.getKey(), entry.getValue(), status));
         }
-        if (availableOnly) {
-            criteriaList.add(Criteria.where("quantity").gt(0));
+        if (!applied.isEmpty() && soldOut(applied)) {
+            productCountService.invalidate();
         }
-        if (sellerId != null && !sellerId.isBlank()) {
-            criteriaList.add(Criteria.where("userId").is(sellerId));
+
+        log.info("Stock batch {} applied to {}/{} product(s)", batchId, matched, quantities.size());
+        return new BatchStockUpdateResponse(matched, results);
+    }
+
+    /**
+     * Whether any of the decremented products is now out of stock, the only transition a decrement
+     * can make that changes a cached total.
+     */
+    private boolean soldOut(Collection<String> productIds) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").in(productIds).and("quantity").lte(0)), Product.class);
+    }
+
+    private Map<String, BatchStockUpdateResponse.Status> classifyStockBatch(Collection<String> productIds, String batchId) {
+        Query query = Query.query(Criteria.where("_id").in(productIds));
+        query.fields().include("_id").include(STOCK_BATCHES_FIELD);
+        List<Document> documents = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Product.class));
+
+        Map<String, BatchStockUpdateResponse.Status> statuses = new HashMap<>();
+        productIds.forEach(id -> statuses.put(id, BatchStockUpdateResponse.Status.NOT_FOUND));
+        for (Document document : documents) {
+            List<?> batches = document.getList(STOCK_BATCHES_FIELD, Object.class, List.of());
+            statuses.put(String.valueOf(document.get("_id")), batches.contains(batchId)
+                    ? BatchStockUpdateResponse.Status.APPLIED
+                    : BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK);
         }
+        return statuses;
+    }
+
+    /**
+     * Runs a listing query as resolved by {@link ProductListing}. Totals come from
+     * {@link ProductCountService} and are skipped entirely when {@code includeTotal} is false.
+     */
+    private PagedResponse<ProductResponse> findPaged(ProductFilter filter, int page, int size,
+                                                     String sortBy, String sortDir, String cursor,
+                                                     boolean includeTotal, String fields) {
+        ProductListing listing = ProductListing.of(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields);
+
+        List<Product> products = mongoTemplate.find(listing.pageQuery(), Product.class);
+        long total = includeTotal ? productCountService.count(filter) : UNKNOWN_TOTAL;
 
-        Criteria criteria = criteriaList.isEmpty() ? new Criteria()
-                : new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
-        return Query.query(criteria);
+        return listing.toPage(products, total);
     }
 
-    private ProductResponse toProductResponse(Product product) {
+    ProductResponse toProductResponse(Product product) {
         return new ProductResponse(
                 product.getId(),
                 product.getName(),
@@ -253,7 +385,8 @@ public class ProductService {
                 product.getPrice(),
                 product.getQuantity(),
                 product.getUserId(),
-                product.getCategory()
+                product.getCategory(),
+                product.getVersion()
         );
     }
 }
@@ -0,0 +1,80 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.models.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read operations of {@link ProductService}, built on the reactive
+ * MongoDB driver. Listings resolve to the same queries through {@link ProductListing}, and totals share
+ * the filtered-count cache of {@link ProductCountService}, so both paths answer identically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveProductService {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ProductCache productCache;
+    private final ProductCountService productCountService;
+
+    /**
+     * Fetches the page and, unless {@code includeTotal} is false, its total concurrently.
+     */
+    public Mono<PagedResponse<ProductResponse>> getProductsPaged(
+            ProductFilter filter, int page, int size, String sortBy, String sortDir,
+            String cursor, boolean includeTotal, String fields) {
+        return Mono.fromCallable(() -> ProductListing.of(filter, page, size, sortBy, sortDir, cursor, includeTotal, fields))
+                .flatMap(listing -> Mono.zip(
+                        reactiveMongoTemplate.find(listing.pageQuery(), Product.class).collectList(),
+                        includeTotal ? count(filter) : Mono.just(ProductService.UNKNOWN_TOTAL),
+                        listing::toPage))
+                .doOnNext(response -> log.info("Retrieved {} products (page {}/{})",
+                        response.getContent().size(), page + 1, response.getTotalPages()));
+    }
+
+    /**
+     * Streams the products of the requested page as the cursor delivers them, without paging
+     * metadata; demand from a slow client propagates back to the MongoDB cursor.
+     */
+    public Flux<ProductResponse> streamProducts(
+            ProductFilter filter, int page, int size, String sortBy, String sortDir, String cursor, String fields) {
+        return Mono.fromCallable(() -> ProductListing.of(filter, page, size, sortBy, sortDir, cursor, false, fields))
+                .flatMapMany(listing -> reactiveMongoTemplate.find(listing.streamQuery(), Product.class)
+                        .map(listing::toResponse));
+    }
+
+    /**
+     * Serves cached products from memory. Products read from MongoDB are not put into the cache here,
+     * since a write that evicts the product concurrently could otherwise be overtaken by the stale copy.
+     */
+    public Mono<ProductResponse> getProductById(String id) {
+        return Mono.justOrEmpty(productCache.getIfPresent(id))
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findOne(
+                        ProductFields.withoutInternalFields(Query.query(Criteria.where("_id").is(id))), Product.class)))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.warn("Product not found with ID: {}", id);
+                    return new IllegalArgumentException("Product not found");
+                }))
+                .map(product -> ProductFields.toResponse(product, ProductFields.ALL));
+    }
+
+    private Mono<Long> count(ProductFilter filter) {
+        if (filter.isUnfiltered()) {
+            return reactiveMongoTemplate.estimatedCount(Product.class);
+        }
+        Long cached = productCountService.cached(filter);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return reactiveMongoTemplate.count(ProductQueries.buildFilterQuery(filter), Product.class)
+                .doOnNext(count -> productCountService.store(filter, count));
+    }
+}
@@ -14,15 +14,20 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 	"jwt.expiration=86400000",
 	"spring.kafka.bootstrap-servers=localhost:9092",
 	"spring.kafka.consumer.group-id=product-service",
+	"product.indexes.ensure-on-startup=false",
+	"product.indexes.verify=off",
+	"product.migration.price-decimal128.enabled=false",
+	"product.outbox.relay.enabled=false",
+	"product.dedupe.warm-up-on-startup=false",
 	"spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration,org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration"
 })
 class ProductServiceApplicationTests {
 
 	@MockitoBean
-	ConsumerFactory<String, String> consumerFactory;
+	ConsumerFactory<String, byte[]> consumerFactory;
 
 	@MockitoBean
-	ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory;
+	ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory;
 
 	@Test
 	void contextLoads() {
@@ -0,0 +1,39 @@
+package io.github.johneliud.product_service.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaProducerConfigTest {
+
+    private KafkaProducerConfig config(String acks) {
+        KafkaProducerConfig config = new KafkaProducerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(config, "acks", acks);
+        ReflectionTestUtils.setField(config, "compressionType", "lz4");
+        ReflectionTestUtils.setField(config, "lingerMs", 20);
+        ReflectionTestUtils.setField(config, "batchSize", 65536);
+        return config;
+    }
+
+    @Test
+    void producerConfig_isIdempotentAndBatchedWithAcksAll() {
+        Map<String, Object> producer = config("all").producerConfig();
+
+        assertThat(producer)
+                .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+                .containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4")
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+                .containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+    }
+
+    @Test
+    void producerConfig_withoutAcksAll_disablesIdempotence() {
+        assertThat(config("1").producerConfig()).containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.johneliud.product_service.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import io.github.johneliud.product_service.models.Product;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigTest {
+
+    private MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    @Test
+    void price_isWrittenAsDecimal128() {
+        Product product = new Product("p1", "Phone", "desc", new BigDecimal("19.90"), 3, "seller", "phones", 3L, null);
+
+        Document document = new Document();
+        converter().write(product, document);
+
+        assertThat(document.get("price")).isEqualTo(new Decimal128(new BigDecimal("19.90")));
+    }
+
+    @Test
+    void price_isReadFromDecimal128AndLegacyString() {
+        MappingMongoConverter converter = converter();
+
+        Product migrated = converter.read(Product.class, new Document("_id", "p1")
+                .append("price", new Decimal128(new BigDecimal("19.90"))));
+        Product legacy = converter.read(Product.class, new Document("_id", "p2").append("price", "5.25"));
+
+        assertThat(migrated.getPrice()).isEqualByComparingTo("19.90");
+        assertThat(legacy.getPrice()).isEqualByComparingTo("5.25");
+    }
+
+    @Test
+    void connectionPool_isBoundedWithFailFastWait() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder();
+        new MongoConfig().mongoConnectionPoolCustomizer(50, 4, Duration.ofMillis(1500)).customize(builder);
+
+        ConnectionPoolSettings pool = builder.build().getConnectionPoolSettings();
+        assertThat(pool.getMaxSize()).isEqualTo(50);
+        assertThat(pool.getMaxConnecting()).isEqualTo(4);
+        assertThat(pool.getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(1500);
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.johneliud.product_service.controllers;
+
+import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductETagsTest {
+
+    private static ProductResponse product(String id, Long version) {
+        return new ProductResponse(id, "Name", null, BigDecimal.TEN, 1, null, null, version);
+    }
+
+    private static PagedResponse<ProductResponse> page(ProductResponse... products) {
+        return new PagedResponse<>(List.of(products), 0, 10, products.length, 1, true, null);
+    }
+
+    @Test
+    void productETag_IsQuotedVersion() {
+        assertEquals("\"3\"", ProductETags.of(product("p1", 3L)));
+        assertEquals("\"0\"", ProductETags.of(product("p1", null)));
+    }
+
+    @Test
+    void listingETag_ChangesWithVersionsAndFields() {
+        String etag = ProductETags.of(page(product("p1", 1L), product("p2", 1L)), null);
+
+        assertEquals(etag, ProductETags.of(page(product("p1", 1L), product("p2", 1L)), null));
+        assertNotEquals(etag, ProductETags.of(page(product("p1", 1L), product("p2", 2L)), null));
+        assertNotEquals(etag, ProductETags.of(page(product("p1", 1L), product("p2", 1L)), "full"));
+        assertTrue(etag.matches("\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    void expectedVersion_ParsesStrongTagsOnly() {
+        assertNull(ProductETags.expectedVersion(null));
+        assertNull(ProductETags.expectedVersion("*"));
+        assertEquals(7L, ProductETags.expectedVersion("\"7\""));
+        assertThrows(PreconditionFailedException.class, () -> ProductETags.expectedVersion("W/\"7\""));
+        assertThrows(PreconditionFailedException.class, () -> ProductETags.expectedVersion("\"abc\""));
+    }
+}
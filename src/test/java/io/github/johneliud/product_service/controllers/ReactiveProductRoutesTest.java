@@ -0,0 +1,185 @@
+package io.github.johneliud.product_service.controllers;
+
+import io.github.johneliud.product_service.dto.PagedResponse;
+import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
+import io.github.johneliud.product_service.services.ProductFilter;
+import io.github.johneliud.product_service.services.ReactiveProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductRoutesTest {
+
+    @Mock
+    private ReactiveProductService reactiveProductService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToRouterFunction(new ReactiveProductRoutes(reactiveProductService).routes()).build();
+    }
+
+    private static ProductResponse product(String id, long version) {
+        return new ProductResponse(id, "Lamp " + id, "Desk lamp", new BigDecimal("19.90"), 3, "seller1", "Home", version);
+    }
+
+    @Test
+    void getProductById_returnsProductWithVersionETag() {
+        when(reactiveProductService.getProductById("p1")).thenReturn(Mono.just(product("p1", 3L)));
+
+        client.get().uri("/api/products/p1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.data.name").isEqualTo("Lamp p1")
+                .jsonPath("$.data.version").doesNotExist();
+    }
+
+    @Test
+    void getProductById_ifNoneMatchCurrentVersion_returnsNotModified() {
+        when(reactiveProductService.getProductById("p1")).thenReturn(Mono.just(product("p1", 3L)));
+
+        client.get().uri("/api/products/p1").header("If-None-Match", "\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getAllProducts_ifNoneMatchCurrentPage_returnsNotModified() {
+        PagedResponse<ProductResponse> page = new PagedResponse<>(List.of(product("p1", 1L)), 0, 10, 1, 1, true, null);
+        when(reactiveProductService.getProductsPaged(any(ProductFilter.class), eq(0), eq(10), isNull(), eq("asc"),
+                isNull(), eq(true), isNull())).thenReturn(Mono.just(page));
+
+        client.get().uri("/api/products").header("If-None-Match", ProductETags.of(page, null)).exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getAllProducts_ndjson_streamsOneProductPerLine() {
+        when(reactiveProductService.streamProducts(any(ProductFilter.class), eq(1), eq(2), isNull(), eq("asc"),
+                isNull(), isNull())).thenReturn(Flux.just(product("p1", 1L), product("p2", 1L)));
+
+        String body = client.get().uri("/api/products?page=1&size=2").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body.strip().split("\n")).hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).startsWith("{\"id\":\"p1\"").doesNotContain("success"),
+                        line -> assertThat(line).startsWith("{\"id\":\"p2\""));
+        verify(reactiveProductService, never()).getProductsPaged(any(), anyInt(), anyInt(), any(), any(), any(),
+                anyBoolean(), any());
+    }
+
+    @Test
+    void getSellerProducts_missingHeaders_returnsBadRequest() {
+        client.get().uri("/api/products/my-products").header("X-User-Id", "seller1").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(false)
+                .jsonPath("$.message").isEqualTo("Authentication required");
+        verifyNoInteractions(reactiveProductService);
+    }
+
+    @Test
+    void getSellerProducts_nonSeller_returnsBadRequest() {
+        client.get().uri("/api/products/my-products")
+                .header("X-User-Id", "client1")
+                .header("X-User-Role", "CLIENT")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Only sellers can access this endpoint");
+        verifyNoInteractions(reactiveProductService);
+    }
+
+    @Test
+    void getSellerProducts_filtersByCallerEvenWhenSellerIdIsGiven() {
+        PagedResponse<ProductResponse> page = new PagedResponse<>(List.of(), 0, 10, 0, 0, true, null);
+        ArgumentCaptor<ProductFilter> filter = ArgumentCaptor.forClass(ProductFilter.class);
+        when(reactiveProductService.getProductsPaged(filter.capture(), eq(0), eq(10), isNull(), eq("asc"), isNull(),
+                eq(true), isNull())).thenReturn(Mono.just(page));
+
+        client.get().uri("/api/products/my-products?sellerId=other&category=Home")
+                .header("X-User-Id", "seller1")
+                .header("X-User-Role", "SELLER")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(filter.getValue().getSellerId()).isEqualTo("seller1");
+        assertThat(filter.getValue().getCategory()).isEqualTo("Home");
+    }
+
+    @Test
+    void invalidParameter_returnsBadRequest() {
+        client.get().uri("/api/products?page=abc").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.success").isEqualTo(false);
+        verifyNoInteractions(reactiveProductService);
+    }
+
+    @Test
+    void productNotFound_returnsBadRequest() {
+        when(reactiveProductService.getProductById("missing"))
+                .thenReturn(Mono.error(new IllegalArgumentException("Product not found")));
+
+        client.get().uri("/api/products/missing").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Product not found");
+    }
+
+    @Test
+    void preconditionFailure_returnsPreconditionFailed() {
+        when(reactiveProductService.getProductById("p1"))
+                .thenReturn(Mono.error(new PreconditionFailedException("Product was modified")));
+
+        client.get().uri("/api/products/p1").exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void databaseUnavailable_returnsServiceUnavailable() {
+        when(reactiveProductService.getProductById("p1"))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("no connection")));
+
+        client.get().uri("/api/products/p1").exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectBody().jsonPath("$.message").isEqualTo("Service temporarily unavailable, please retry");
+    }
+
+    @Test
+    void unexpectedError_returnsInternalServerErrorWithoutDetails() {
+        when(reactiveProductService.getProductById("p1")).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        client.get().uri("/api/products/p1").exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectBody().jsonPath("$.message").isEqualTo("An error occurred while processing your request");
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.johneliud.product_service.event;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    @Test
+    void lanes_runOnVirtualThreadsWhenEnabled() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(2, true);
+        try {
+            Thread lane = executor.submit(executor.laneOf("p1"), Thread::currentThread).join();
+
+            assertThat(lane.isVirtual()).isTrue();
+            assertThat(lane.getName()).isEqualTo("order-lane-" + executor.laneOf("p1"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void lanes_runOnDaemonPlatformThreadsByDefault() throws Exception {
+        KeyOrderedExecutor executor = new KeyOrderedExecutor(1, false);
+        try {
+            Thread lane = executor.submit(0, Thread::currentThread).join();
+
+            assertThat(lane.isVirtual()).isFalse();
+            assertThat(lane.isDaemon()).isTrue();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
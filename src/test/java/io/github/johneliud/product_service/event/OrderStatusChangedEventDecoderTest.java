@@ -0,0 +1,56 @@
+package io.github.johneliud.product_service.event;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStatusChangedEventDecoderTest {
+
+    private final OrderStatusChangedEventDecoder decoder = new OrderStatusChangedEventDecoder(JsonMapper.builder().build());
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void peekStatus_skipsNestedValuesBeforeStatus() {
+        byte[] payload = bytes("{\"orderId\":\"o1\",\"items\":[{\"productId\":\"p1\",\"quantity\":2,\"meta\":{\"a\":[1,2]}}],"
+                + "\"newStatus\":\"SHIPPED\"}");
+
+        assertThat(decoder.peekStatus(payload)).isEqualTo("SHIPPED");
+    }
+
+    @Test
+    void peekStatus_stopsAtStatusWithoutReadingTheRest() {
+        // The trailing garbage is never tokenized because parsing stops at newStatus
+        byte[] payload = bytes("{\"orderId\":\"o1\",\"newStatus\":\"CANCELLED\",\"items\":[{\"productId\": oops");
+
+        assertThat(decoder.peekStatus(payload)).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void peekStatus_missingStatus_returnsNull() {
+        assertThat(decoder.peekStatus(bytes("{\"orderId\":\"o1\",\"newStatus\":null}"))).isNull();
+        assertThat(decoder.peekStatus(bytes("{\"orderId\":\"o1\"}"))).isNull();
+    }
+
+    @Test
+    void peekStatus_notAnObject_throws() {
+        assertThatThrownBy(() -> decoder.peekStatus(bytes("[1,2]")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void read_bindsFullEvent() {
+        OrderStatusChangedEvent event = decoder.read(bytes("{\"orderId\":\"o1\",\"newStatus\":\"DELIVERED\","
+                + "\"items\":[{\"productId\":\"p1\",\"productName\":\"Lamp\",\"price\":9.5,\"quantity\":2}]}"));
+
+        assertThat(event.getOrderId()).isEqualTo("o1");
+        assertThat(event.getItems()).singleElement()
+                .satisfies(item -> assertThat(item.getQuantity()).isEqualTo(2));
+    }
+}
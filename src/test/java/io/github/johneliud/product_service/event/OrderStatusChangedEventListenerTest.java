@@ -0,0 +1,255 @@
+package io.github.johneliud.product_service.event;
+
+import io.github.johneliud.product_service.dto.BatchStockUpdateRequest;
+import io.github.johneliud.product_service.dto.BatchStockUpdateResponse;
+import io.github.johneliud.product_service.services.ProcessedOrderStore;
+import io.github.johneliud.product_service.services.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusChangedEventListenerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProcessedOrderStore processedOrderStore;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KeyOrderedExecutor laneExecutor;
+    private OrderStatusChangedEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        laneExecutor = new KeyOrderedExecutor(4, false);
+        listener = new OrderStatusChangedEventListener(productService,
+                new OrderStatusChangedEventDecoder(objectMapper), laneExecutor, processedOrderStore, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        laneExecutor.shutdown();
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, String orderId, String status, String... productIds) {
+        StringBuilder items = new StringBuilder();
+        for (String productId : productIds) {
+            if (!items.isEmpty()) {
+                items.append(',');
+            }
+            items.append("{\"productId\":\"").append(productId).append("\",\"productName\":\"x\",\"price\":1.5,\"quantity\":2}");
+        }
+        String json = "{\"orderId\":\"" + orderId + "\",\"userId\":\"u1\",\"sellerId\":\"s1\",\"oldStatus\":\"SHIPPED\","
+                + "\"newStatus\":\"" + status + "\",\"items\":[" + items + "]}";
+        return new ConsumerRecord<>("order-status-changed", 0, offset, orderId, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allowOrders(String... processedOrderIds) {
+        Set<String> processed = Set.of(processedOrderIds);
+        when(processedOrderStore.filterNew(any())).thenAnswer(invocation -> {
+            Set<String> fresh = new LinkedHashSet<>((Collection<String>) invocation.getArgument(0));
+            fresh.removeAll(processed);
+            return fresh;
+        });
+    }
+
+    @Test
+    void batch_onlyDeliveredItemsDecrementedPerLane() {
+        allowOrders();
+        when(productService.decrementStockBatch(anyList(), eq(false)))
+                .thenReturn(new BatchStockUpdateResponse(1, List.of()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchStockUpdateRequest.Item>> captor = ArgumentCaptor.forClass(List.class);
+
+        listener.onOrderStatusChangedMessages(List.of(
+                record(0, "o1", "DELIVERED", "p1", "p2"),
+                record(1, "o2", "SHIPPED", "p3"),
+                new ConsumerRecord<>("order-status-changed", 0, 2, "o3", "not json".getBytes(StandardCharsets.UTF_8)),
+                record(3, "o4", "DELIVERED", "p1")));
+
+        int lanesUsed = laneExecutor.laneOf("p1") == laneExecutor.laneOf("p2") ? 1 : 2;
+        verify(productService, times(lanesUsed)).decrementStockBatch(captor.capture(), eq(false));
+        assertThat(captor.getAllValues()).flatExtracting(items -> items)
+                .extracting(BatchStockUpdateRequest.Item::getProductId)
+                .containsExactlyInAnyOrder("p1", "p2", "p1");
+        for (List<BatchStockUpdateRequest.Item> laneItems : captor.getAllValues()) {
+            assertThat(laneItems).extracting(item -> laneExecutor.laneOf(item.getProductId())).containsOnly(
+                    laneExecutor.laneOf(laneItems.get(0).getProductId()));
+        }
+        assertThat(meterRegistry.get("orders.status.events").tag("outcome", "delivered").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("orders.status.events").tag("outcome", "ignored").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.status.events").tag("outcome", "invalid").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.status.batch.size").summary().totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void lanes_sameKeyRunsInSubmissionOrder() {
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        int lane = laneExecutor.laneOf("p1");
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            futures.add(laneExecutor.submit(lane, () -> {
+                seen.add(value);
+                return value;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(seen).isSorted().hasSize(50);
+    }
+
+    @Test
+    void batch_withoutDeliveredEvents_doesNotTouchStock() {
+        listener.onOrderStatusChangedMessages(List.of(record(0, "o1", "SHIPPED", "p1")));
+
+        verify(productService, never()).decrementStockBatch(anyList(), anyBoolean());
+    }
+
+    @Test
+    void batch_replayedOrdersSkippedAndNewOrdersRecorded() {
+        allowOrders("o1");
+        when(productService.decrementStockBatch(anyList(), eq(false)))
+                .thenReturn(new BatchStockUpdateResponse(1, List.of()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchStockUpdateRequest.Item>> captor = ArgumentCaptor.forClass(List.class);
+
+        listener.onOrderStatusChangedMessages(List.of(
+                record(0, "o1", "DELIVERED", "p1"),
+                record(1, "o2", "DELIVERED", "p2"),
+                record(2, "o2", "DELIVERED", "p2")));
+
+        verify(productService).decrementStockBatch(captor.capture(), eq(false));
+        assertThat(captor.getValue()).extracting(BatchStockUpdateRequest.Item::getProductId).containsExactly("p2");
+        verify(processedOrderStore).markProcessed(Set.of("o2"));
+    }
+
+    @Test
+    void batch_failedLaneLeavesItsOrdersUnrecordedAndRethrows() {
+        allowOrders();
+        when(productService.decrementStockBatch(anyList(), eq(false))).thenThrow(new RuntimeException("down"));
+
+        assertThatThrownBy(() -> listener.onOrderStatusChangedMessages(List.of(record(0, "o1", "DELIVERED", "p1"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("down");
+
+        verify(processedOrderStore).markProcessed(Set.of());
+    }
+
+    @Test
+    void batch_partiallyAppliedOrderRecordsAppliedItemsForTheRetry() {
+        allowOrders();
+        String failing = productOnOtherLaneThan("p1");
+        when(productService.decrementStockBatch(anyList(), eq(false))).thenAnswer(invocation -> {
+            List<BatchStockUpdateRequest.Item> items = invocation.getArgument(0);
+            if (items.get(0).getProductId().equals(failing)) {
+                throw new RuntimeException("down");
+            }
+            return new BatchStockUpdateResponse(1, List.of());
+        });
+
+        assertThatThrownBy(() -> listener.onOrderStatusChangedMessages(List.of(
+                record(0, "o1", "DELIVERED", "p1", failing),
+                record(1, "o2", "DELIVERED", "p1"))))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(processedOrderStore).markProcessed(Set.of("o2", "o1:p1"));
+    }
+
+    @Test
+    void batch_retrySkipsItemsAlreadyApplied() {
+        allowOrders("o1:p1");
+        when(productService.decrementStockBatch(anyList(), eq(false)))
+                .thenReturn(new BatchStockUpdateResponse(1, List.of()));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchStockUpdateRequest.Item>> captor = ArgumentCaptor.forClass(List.class);
+
+        listener.onOrderStatusChangedMessages(List.of(record(0, "o1", "DELIVERED", "p1", "p2")));
+
+        verify(productService).decrementStockBatch(captor.capture(), eq(false));
+        assertThat(captor.getValue()).extracting(BatchStockUpdateRequest.Item::getProductId).containsExactly("p2");
+        verify(processedOrderStore).markProcessed(Set.of("o1"));
+    }
+
+    @Test
+    void batch_invalidEventsSkippedWithoutFailingTheBatch() {
+        allowOrders();
+        when(productService.decrementStockBatch(anyList(), eq(false)))
+                .thenReturn(new BatchStockUpdateResponse(1, List.of()));
+        String withoutItems = "{\"orderId\":\"o1\",\"newStatus\":\"DELIVERED\"}";
+        String withoutProductId = "{\"orderId\":\"o2\",\"newStatus\":\"DELIVERED\",\"items\":[{\"quantity\":1}]}";
+
+        listener.onOrderStatusChangedMessages(List.of(
+                new ConsumerRecord<>("order-status-changed", 0, 0, "o1", withoutItems.getBytes(StandardCharsets.UTF_8)),
+                new ConsumerRecord<>("order-status-changed", 0, 1, "o2", withoutProductId.getBytes(StandardCharsets.UTF_8)),
+                record(2, "o3", "DELIVERED", "p1")));
+
+        verify(productService, times(1)).decrementStockBatch(anyList(), eq(false));
+        verify(processedOrderStore).markProcessed(Set.of("o3"));
+        assertThat(meterRegistry.get("orders.status.events").tag("outcome", "invalid").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void batch_rejectedCombinedDecrementFallsBackToEachOrder() {
+        allowOrders();
+        when(productService.decrementStockBatch(anyList(), eq(false)))
+                .thenReturn(new BatchStockUpdateResponse(0, List.of(new BatchStockUpdateResponse.ItemResult(
+                        "p1", 4, BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK))))
+                .thenReturn(new BatchStockUpdateResponse(1, List.of(new BatchStockUpdateResponse.ItemResult(
+                        "p1", 2, BatchStockUpdateResponse.Status.APPLIED))))
+                .thenReturn(new BatchStockUpdateResponse(0, List.of(new BatchStockUpdateResponse.ItemResult(
+                        "p1", 2, BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK))));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchStockUpdateRequest.Item>> captor = ArgumentCaptor.forClass(List.class);
+
+        listener.onOrderStatusChangedMessages(List.of(
+                record(0, "o1", "DELIVERED", "p1"),
+                record(1, "o2", "DELIVERED", "p1")));
+
+        verify(productService, times(3)).decrementStockBatch(captor.capture(), eq(false));
+        assertThat(captor.getAllValues().get(0)).hasSize(2);
+        assertThat(captor.getAllValues().subList(1, 3)).allSatisfy(items -> assertThat(items)
+                .singleElement().extracting(BatchStockUpdateRequest.Item::getQuantity).isEqualTo(2));
+        verify(processedOrderStore).markProcessed(Set.of("o1", "o2"));
+    }
+
+    private String productOnOtherLaneThan(String productId) {
+        for (int i = 0; ; i++) {
+            if (laneExecutor.laneOf("p" + i) != laneExecutor.laneOf(productId)) {
+                return "p" + i;
+            }
+        }
+    }
+}
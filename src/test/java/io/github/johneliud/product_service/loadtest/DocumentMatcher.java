@@ -0,0 +1,154 @@
+package io.github.johneliud.product_service.loadtest;
+
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates the subset of the MongoDB query language the service's queries use against in-memory
+ * objects: implicit equality, {@code $and}, {@code $or}, {@code $gt}/{@code $gte}/{@code $lt}/{@code $lte},
+ * {@code $ne}, {@code $in}, {@code $exists}, regular expressions and {@code $text}. Values are compared as
+ * MongoDB does for the types involved, with null and missing values ordered before all others.
+ */
+final class DocumentMatcher {
+
+    private DocumentMatcher() {
+    }
+
+    /**
+     * @param fields resolves a field name of the query to the object's value
+     * @param text   the text searched by {@code $text}, or {@code null} if the object has no text index
+     */
+    static boolean matches(Document query, Function<String, Object> fields, String text) {
+        for (Map.Entry<String, Object> entry : query.entrySet()) {
+            if (!matchesEntry(entry.getKey(), entry.getValue(), fields, text)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of search terms contained in {@code text}, used as the relevance score.
+     */
+    static int textScore(Document query, String text) {
+        Object search = query.get("$text");
+        if (!(search instanceof Document textDocument) || text == null) {
+            return 0;
+        }
+        String haystack = text.toLowerCase(Locale.ROOT);
+        int score = 0;
+        for (String term : textDocument.getString("$search").toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!term.isEmpty() && haystack.contains(term)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean matchesEntry(String key, Object condition, Function<String, Object> fields, String text) {
+        switch (key) {
+            case "$and" -> {
+                for (Object clause : (Collection<Object>) condition) {
+                    if (!matches((Document) clause, fields, text)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case "$or" -> {
+                for (Object clause : (Collection<Object>) condition) {
+                    if (matches((Document) clause, fields, text)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            case "$text" -> {
+                return textScore(new Document("$text", condition), text) > 0;
+            }
+            default -> {
+                return matchesValue(fields.apply(key), condition);
+            }
+        }
+    }
+
+    private static boolean matchesValue(Object value, Object condition) {
+        if (condition instanceof Document operators && !operators.isEmpty()
+                && operators.keySet().iterator().next().startsWith("$")) {
+            for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                if (!matchesOperator(value, operator.getKey(), operator.getValue(), operators)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (condition instanceof Pattern || condition instanceof BsonRegularExpression) {
+            return matchesRegex(value, condition, null);
+        }
+        return compare(value, condition) == 0;
+    }
+
+    private static boolean matchesOperator(Object value, String operator, Object operand, Document operators) {
+        return switch (operator) {
+            case "$gt" -> value != null && compare(value, operand) > 0;
+            case "$gte" -> value != null && compare(value, operand) >= 0;
+            case "$lt" -> value != null && compare(value, operand) < 0;
+            case "$lte" -> value != null && compare(value, operand) <= 0;
+            case "$ne" -> compare(value, operand) != 0;
+            case "$in" -> ((Collection<?>) operand).stream().anyMatch(candidate -> compare(value, candidate) == 0);
+            case "$exists" -> Boolean.TRUE.equals(operand) == (value != null);
+            case "$regex" -> matchesRegex(value, operand, operators.getString("$options"));
+            case "$options" -> true;
+            default -> throw new UnsupportedOperationException("Operator not supported by the stand-in: " + operator);
+        };
+    }
+
+    private static boolean matchesRegex(Object value, Object regex, String options) {
+        if (!(value instanceof String string)) {
+            return false;
+        }
+        Pattern pattern;
+        if (regex instanceof Pattern compiled) {
+            pattern = compiled;
+        } else if (regex instanceof BsonRegularExpression bson) {
+            pattern = compile(bson.getPattern(), bson.getOptions());
+        } else {
+            pattern = compile(regex.toString(), options);
+        }
+        return pattern.matcher(string).find();
+    }
+
+    private static Pattern compile(String regex, String options) {
+        return Pattern.compile(regex, options != null && options.contains("i") ? Pattern.CASE_INSENSITIVE : 0);
+    }
+
+    /**
+     * Orders values like MongoDB for the types the service stores: null first, numbers numerically,
+     * everything else by natural order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : -1) : 1;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return toDecimal((Number) left).compareTo(toDecimal((Number) right));
+        }
+        if (left instanceof Comparable comparable && left.getClass().isInstance(right)) {
+            return comparable.compareTo(right);
+        }
+        return left.equals(right) ? 0 : left.toString().compareTo(right.toString());
+    }
+
+    private static BigDecimal toDecimal(Number number) {
+        return number instanceof BigDecimal decimal ? decimal : new BigDecimal(number.toString());
+    }
+}
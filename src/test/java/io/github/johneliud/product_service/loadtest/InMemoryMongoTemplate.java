@@ -0,0 +1,360 @@
+package io.github.johneliud.product_service.loadtest;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoClients;
+import io.github.johneliud.product_service.models.ProcessedOrder;
+import io.github.johneliud.product_service.models.Product;
+import io.github.johneliud.product_service.repositories.ProductRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-process stand-in for MongoDB covering the operations of the load-test traffic: listing and search
+ * queries with sorting and paging, counts, single and bulk stock decrements, product creation and lookup
+ * (through {@link #bindRepository}) and the processed-order store. Every operation first waits for
+ * {@code latency}, standing in for the network round trip, so that request threads block the way they
+ * do against a real server.
+ * <p>
+ * Stored products are never mutated in place: writes replace them with an updated copy under a lock,
+ * so queries can read without one.
+ */
+class InMemoryMongoTemplate extends MongoTemplate {
+    private final ConcurrentMap<String, Product> products = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Deque<String>> stockBatches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ProcessedOrder> processedOrders = new ConcurrentHashMap<>();
+    private final Duration latency;
+    private final Object writeLock = new Object();
+
+    InMemoryMongoTemplate(Duration latency) {
+        // The client is never used for data; creating it does not connect
+        super(MongoClients.create("mongodb://localhost:27017"), "loadtest");
+        this.latency = latency;
+    }
+
+    /**
+     * Stores the products directly, without the simulated round trip.
+     */
+    void seed(Collection<Product> seeded) {
+        seeded.forEach(product -> products.put(product.getId(), copy(product)));
+    }
+
+    List<String> productIds() {
+        return List.copyOf(products.keySet());
+    }
+
+    /**
+     * Answers the repository methods used by the service from this store.
+     */
+    void bindRepository(ProductRepository repository) {
+        when(repository.save(any(Product.class)))
+                .thenAnswer(invocation -> save(invocation.<Product>getArgument(0)));
+        when(repository.findProductById(anyString()))
+                .thenAnswer(invocation -> findProduct(invocation.getArgument(0)));
+        when(repository.existsById(anyString()))
+                .thenAnswer(invocation -> findProduct(invocation.getArgument(0)).isPresent());
+        when(repository.findProductsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            roundTrip();
+            List<Product> found = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> {
+                Product product = products.get(id);
+                if (product != null) {
+                    found.add(product);
+                }
+            });
+            return found;
+        });
+    }
+
+    Product save(Product product) {
+        roundTrip();
+        Product saved = copy(product);
+        if (saved.getId() == null) {
+            saved.setId(new ObjectId().toHexString());
+        }
+        saved.setVersion(saved.getVersion() == null ? 0L : saved.getVersion() + 1);
+        synchronized (writeLock) {
+            products.put(saved.getId(), saved);
+        }
+        return copy(saved);
+    }
+
+    private Optional<Product> findProduct(String id) {
+        roundTrip();
+        return Optional.ofNullable(products.get(id)).map(InMemoryMongoTemplate::copy);
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass) {
+        return find(query, entityClass, getCollectionName(entityClass));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+        roundTrip();
+        if (entityClass == ProcessedOrder.class) {
+            Document queryObject = query.getQueryObject();
+            return (List<T>) processedOrders.values().stream()
+                    .filter(order -> DocumentMatcher.matches(queryObject,
+                            field -> isId(field) ? order.getOrderId() : null, null))
+                    .toList();
+        }
+        Stream<Product> matching = select(query);
+        if (entityClass == Document.class) {
+            return (List<T>) matching
+                    .map(product -> new Document("_id", product.getId())
+                            .append("stockBatches", List.copyOf(stockBatches.getOrDefault(product.getId(), new ArrayDeque<>()))))
+                    .toList();
+        }
+        return (List<T>) matching.map(InMemoryMongoTemplate::copy).toList();
+    }
+
+    @Override
+    public long count(Query query, Class<?> entityClass) {
+        roundTrip();
+        Document queryObject = query.getQueryObject();
+        return candidates(queryObject).filter(product -> matches(queryObject, product)).count();
+    }
+
+    @Override
+    public boolean exists(Query query, Class<?> entityClass) {
+        roundTrip();
+        Document queryObject = query.getQueryObject();
+        return candidates(queryObject).anyMatch(product -> matches(queryObject, product));
+    }
+
+    @Override
+    public long estimatedCount(Class<?> entityClass) {
+        roundTrip();
+        return entityClass == ProcessedOrder.class ? processedOrders.size() : products.size();
+    }
+
+    @Override
+    public <T> T findAndModify(Query query, UpdateDefinition update, Class<T> entityClass) {
+        return findAndModify(query, update, FindAndModifyOptions.none(), entityClass);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options, Class<T> entityClass) {
+        roundTrip();
+        synchronized (writeLock) {
+            Document queryObject = query.getQueryObject();
+            Optional<Product> match = candidates(queryObject).filter(product -> matches(queryObject, product)).findFirst();
+            if (match.isEmpty()) {
+                return null;
+            }
+            Product updated = apply(match.get(), update.getUpdateObject());
+            return (T) copy(options.isReturnNew() ? updated : match.get());
+        }
+    }
+
+    /**
+     * Bulk operations for products ({@code updateOne}) and processed orders ({@code upsert}); the queued
+     * writes are applied together, after a single round trip, by {@code execute()}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+        List<Pair<Query, UpdateDefinition>> writes = new ArrayList<>();
+        return mock(BulkOperations.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "updateOne", "upsert" -> {
+                Object argument = invocation.getArgument(0);
+                if (argument instanceof Query query) {
+                    writes.add(Pair.of(query, invocation.getArgument(1)));
+                } else {
+                    writes.addAll((Collection<Pair<Query, UpdateDefinition>>) argument);
+                }
+                yield invocation.getMock();
+            }
+            case "execute" -> {
+                roundTrip();
+                yield entityClass == ProcessedOrder.class ? upsertProcessedOrders(writes) : updateProducts(writes);
+            }
+            default -> throw new UnsupportedOperationException(
+                    "Bulk operation not supported by the stand-in: " + invocation.getMethod().getName());
+        });
+    }
+
+    private BulkWriteResult updateProducts(List<Pair<Query, UpdateDefinition>> writes) {
+        int matched = 0;
+        synchronized (writeLock) {
+            for (Pair<Query, UpdateDefinition> write : writes) {
+                Document queryObject = write.getFirst().getQueryObject();
+                Optional<Product> match = candidates(queryObject)
+                        .filter(product -> matches(queryObject, product))
+                        .findFirst();
+                if (match.isPresent()) {
+                    apply(match.get(), write.getSecond().getUpdateObject());
+                    matched++;
+                }
+            }
+        }
+        return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of());
+    }
+
+    private BulkWriteResult upsertProcessedOrders(List<Pair<Query, UpdateDefinition>> writes) {
+        int matched = 0;
+        for (Pair<Query, UpdateDefinition> write : writes) {
+            String orderId = String.valueOf(write.getFirst().getQueryObject().get("_id"));
+            if (processedOrders.putIfAbsent(orderId, new ProcessedOrder(orderId, Instant.now())) != null) {
+                matched++;
+            }
+        }
+        return BulkWriteResult.acknowledged(0, matched, 0, 0, List.of(), List.of());
+    }
+
+    private Stream<Product> select(Query query) {
+        Document queryObject = query.getQueryObject();
+        Stream<Product> matching = candidates(queryObject).filter(product -> matches(queryObject, product));
+        Comparator<Product> order = comparator(query.getSortObject(), queryObject);
+        if (order != null) {
+            matching = matching.sorted(order);
+        }
+        if (query.getSkip() > 0) {
+            matching = matching.skip(query.getSkip());
+        }
+        if (query.isLimited()) {
+            matching = matching.limit(query.getLimit());
+        }
+        return matching;
+    }
+
+    private static Comparator<Product> comparator(Document sort, Document queryObject) {
+        Comparator<Product> order = null;
+        for (Map.Entry<String, Object> entry : sort.entrySet()) {
+            Comparator<Product> next;
+            if (entry.getValue() instanceof Document) {
+                // {$meta: "textScore"}: most relevant first
+                next = Comparator.comparingInt((Product product) -> DocumentMatcher.textScore(queryObject, text(product)))
+                        .reversed();
+            } else {
+                String field = entry.getKey();
+                Comparator<Product> ascending = (left, right) ->
+                        DocumentMatcher.compare(value(left, field), value(right, field));
+                next = ((Number) entry.getValue()).intValue() < 0 ? ascending.reversed() : ascending;
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+
+    /**
+     * Queries by {@code _id} look the product up directly instead of scanning the collection.
+     */
+    private Stream<Product> candidates(Document queryObject) {
+        if (queryObject.get("_id") instanceof String id) {
+            return Stream.ofNullable(products.get(id));
+        }
+        return products.values().stream();
+    }
+
+    private static boolean matches(Document queryObject, Product product) {
+        return DocumentMatcher.matches(queryObject, field -> value(product, field), text(product));
+    }
+
+    /**
+     * Applies {@code $set}, {@code $inc} and {@code $push} to a copy of {@code product} and stores it.
+     */
+    private Product apply(Product product, Document update) {
+        Product updated = copy(product);
+        update.get("$set", new Document()).forEach((field, value) -> setValue(updated, field, value));
+        update.get("$inc", new Document()).forEach((field, delta) -> {
+            Object current = value(updated, field);
+            long base = current == null ? 0 : ((Number) current).longValue();
+            setValue(updated, field, base + ((Number) delta).longValue());
+        });
+        update.get("$push", new Document()).forEach((field, push) -> {
+            Deque<String> batches = stockBatches.computeIfAbsent(updated.getId(), id -> new ArrayDeque<>());
+            Object values = push instanceof Document each ? each.get("$each") : List.of(push);
+            ((Collection<?>) values).forEach(batchId -> batches.addLast(String.valueOf(batchId)));
+            while (batches.size() > 16) {
+                batches.removeFirst();
+            }
+        });
+        products.put(updated.getId(), updated);
+        return updated;
+    }
+
+    private static boolean isId(String field) {
+        return field.equals("_id") || field.equals("id");
+    }
+
+    private static String text(Product product) {
+        return product.getName() + " " + product.getDescription() + " " + product.getCategory();
+    }
+
+    private static Object value(Product product, String field) {
+        if (isId(field)) {
+            return product.getId();
+        }
+        return switch (field) {
+            case "name" -> product.getName();
+            case "description" -> product.getDescription();
+            case "price" -> product.getPrice();
+            case "quantity" -> product.getQuantity();
+            case "userId" -> product.getUserId();
+            case "category" -> product.getCategory();
+            case "version" -> product.getVersion();
+            case "snapshotPending" -> product.getSnapshotPending();
+            default -> null;
+        };
+    }
+
+    private static void setValue(Product product, String field, Object value) {
+        switch (field) {
+            case "name" -> product.setName((String) value);
+            case "description" -> product.setDescription((String) value);
+            case "price" -> product.setPrice((BigDecimal) value);
+            case "quantity" -> product.setQuantity(((Number) value).intValue());
+            case "category" -> product.setCategory((String) value);
+            case "version" -> product.setVersion(((Number) value).longValue());
+            case "snapshotPending" -> product.setSnapshotPending((Boolean) value);
+            default -> throw new UnsupportedOperationException("Field not supported by the stand-in: " + field);
+        }
+    }
+
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getUserId(), product.getCategory(), product.getVersion(),
+                product.getSnapshotPending());
+    }
+
+    private void roundTrip() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
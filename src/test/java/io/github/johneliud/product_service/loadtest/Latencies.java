@@ -0,0 +1,58 @@
+package io.github.johneliud.product_service.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one operation in nanoseconds, kept in full so that percentiles are exact. Not thread-safe:
+ * each client records into its own instance and the results are merged afterwards.
+ */
+final class Latencies {
+    private long[] values = new long[1024];
+    private int count;
+    private long failures;
+    private boolean sorted;
+
+    void record(long nanos, boolean succeeded) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = nanos;
+        if (!succeeded) {
+            failures++;
+        }
+        sorted = false;
+    }
+
+    void addAll(Latencies other) {
+        if (count + other.count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, count + other.count));
+        }
+        System.arraycopy(other.values, 0, values, count, other.count);
+        count += other.count;
+        failures += other.failures;
+        sorted = false;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long failures() {
+        return failures;
+    }
+
+    /**
+     * Nearest-rank percentile, e.g. {@code percentile(0.99)}; {@code 0} when nothing was recorded.
+     */
+    long percentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(values, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(quantile * count);
+        return values[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
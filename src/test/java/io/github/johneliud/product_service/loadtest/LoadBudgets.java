@@ -0,0 +1,69 @@
+package io.github.johneliud.product_service.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Performance budgets from {@code load-test-budgets.properties}, each overridable with a
+ * {@code loadtest.budget.<key>} system property (e.g. {@code -Dloadtest.budget.detail.p99-ms=50}).
+ * Keys are {@code <operation>.p99-ms}, {@code <operation>.min-throughput} (requests per second) and
+ * {@code <operation>.max-error-rate}, where the operation may also be {@code total}.
+ */
+final class LoadBudgets {
+    static final String RESOURCE = "load-test-budgets.properties";
+    private static final String OVERRIDE_PREFIX = "loadtest.budget.";
+
+    private final Properties budgets = new Properties();
+
+    LoadBudgets() {
+        try (InputStream in = LoadBudgets.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + RESOURCE, e);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(OVERRIDE_PREFIX))
+                .forEach(name -> budgets.setProperty(name.substring(OVERRIDE_PREFIX.length()), System.getProperty(name)));
+    }
+
+    /**
+     * Returns a description of every budget the report exceeds; empty when all are met.
+     */
+    List<String> violations(LoadReport report) {
+        List<String> violations = new ArrayList<>();
+        List<String> operations = new ArrayList<>(report.operations().keySet());
+        operations.add(LoadReport.TOTAL);
+        for (String operation : operations) {
+            Double p99Budget = budget(operation + ".p99-ms");
+            double p99 = LoadReport.millis(report.latencies(operation).percentile(0.99));
+            if (p99Budget != null && p99 > p99Budget) {
+                violations.add(String.format(Locale.ROOT, "%s p99 %.2f ms exceeds %.2f ms", operation, p99, p99Budget));
+            }
+            Double throughputBudget = budget(operation + ".min-throughput");
+            double throughput = report.throughput(operation);
+            if (throughputBudget != null && throughput < throughputBudget) {
+                violations.add(String.format(Locale.ROOT, "%s throughput %.1f req/s is below %.1f req/s",
+                        operation, throughput, throughputBudget));
+            }
+            Double errorBudget = budget(operation + ".max-error-rate");
+            double errorRate = report.errorRate(operation);
+            if (errorBudget != null && errorRate > errorBudget) {
+                violations.add(String.format(Locale.ROOT, "%s error rate %.4f exceeds %.4f",
+                        operation, errorRate, errorBudget));
+            }
+        }
+        return violations;
+    }
+
+    private Double budget(String key) {
+        String value = budgets.getProperty(key);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+}
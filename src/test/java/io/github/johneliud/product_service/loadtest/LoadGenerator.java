@@ -0,0 +1,89 @@
+package io.github.johneliud.product_service.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load generator: {@code concurrency} virtual-thread clients each pick the next operation
+ * at random by weight, run it and record its latency, until the measurement window closes. A warm-up
+ * window runs the same mix first and is discarded.
+ */
+final class LoadGenerator {
+
+    /**
+     * @param action returns whether the operation succeeded; exceptions count as failures
+     */
+    record Operation(String name, int weight, Callable<Boolean> action) {
+    }
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    LoadGenerator(List<Operation> operations) {
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    LoadReport run(int concurrency, Duration warmUp, Duration measurement) throws Exception {
+        runWindow(concurrency, warmUp);
+        long started = System.nanoTime();
+        List<Map<String, Latencies>> results = runWindow(concurrency, measurement);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        Map<String, Latencies> merged = new LinkedHashMap<>();
+        operations.forEach(operation -> merged.put(operation.name(), new Latencies()));
+        results.forEach(result -> result.forEach((name, latencies) -> merged.get(name).addAll(latencies)));
+        return new LoadReport(merged, elapsed);
+    }
+
+    private List<Map<String, Latencies>> runWindow(int concurrency, Duration window) throws Exception {
+        long deadline = System.nanoTime() + window.toNanos();
+        List<Future<Map<String, Latencies>>> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.add(executor.submit(() -> client(deadline)));
+            }
+            List<Map<String, Latencies>> results = new ArrayList<>(concurrency);
+            for (Future<Map<String, Latencies>> client : clients) {
+                results.add(client.get());
+            }
+            return results;
+        }
+    }
+
+    private Map<String, Latencies> client(long deadline) {
+        Map<String, Latencies> recorded = new LinkedHashMap<>();
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick();
+            long started = System.nanoTime();
+            boolean succeeded;
+            try {
+                succeeded = operation.action().call();
+            } catch (Exception e) {
+                succeeded = false;
+            }
+            recorded.computeIfAbsent(operation.name(), name -> new Latencies())
+                    .record(System.nanoTime() - started, succeeded);
+        }
+        return recorded;
+    }
+
+    private Operation pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights changed while running");
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.johneliud.product_service.loadtest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throughput, failures and latency percentiles per operation and in total for one measurement window.
+ */
+final class LoadReport {
+    static final String TOTAL = "total";
+
+    private final Map<String, Latencies> operations;
+    private final Latencies total = new Latencies();
+    private final Duration elapsed;
+
+    LoadReport(Map<String, Latencies> operations, Duration elapsed) {
+        this.operations = Collections.unmodifiableMap(operations);
+        this.elapsed = elapsed;
+        operations.values().forEach(total::addAll);
+    }
+
+    Map<String, Latencies> operations() {
+        return operations;
+    }
+
+    Latencies latencies(String operation) {
+        return TOTAL.equals(operation) ? total : operations.get(operation);
+    }
+
+    double throughput(String operation) {
+        return latencies(operation).count() / (elapsed.toNanos() / 1e9);
+    }
+
+    double errorRate(String operation) {
+        Latencies latencies = latencies(operation);
+        return latencies.count() == 0 ? 0 : (double) latencies.failures() / latencies.count();
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    String format(String title) {
+        StringBuilder report = new StringBuilder()
+                .append(title).append(" (").append(elapsed.toMillis()).append(" ms)").append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "%-10s %9s %8s %10s %9s %9s %9s %9s%n",
+                        "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        operations.keySet().forEach(operation -> appendRow(report, operation));
+        appendRow(report, TOTAL);
+        return report.toString();
+    }
+
+    private void appendRow(StringBuilder report, String operation) {
+        Latencies latencies = latencies(operation);
+        report.append(String.format(Locale.ROOT, "%-10s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                operation, latencies.count(), latencies.failures(), throughput(operation),
+                millis(latencies.percentile(0.50)), millis(latencies.percentile(0.90)),
+                millis(latencies.percentile(0.99)), millis(latencies.percentile(1.0))));
+    }
+}
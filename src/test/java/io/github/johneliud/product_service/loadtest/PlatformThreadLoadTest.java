@@ -0,0 +1,15 @@
+package io.github.johneliud.product_service.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The load mix on the default platform thread pools, as the baseline for {@link VirtualThreadLoadTest}.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadLoadTest extends ProductServiceLoadTest {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
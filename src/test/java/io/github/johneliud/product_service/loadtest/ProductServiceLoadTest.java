@@ -0,0 +1,249 @@
+package io.github.johneliud.product_service.loadtest;
+
+import io.github.johneliud.product_service.event.OrderStatusChangedEventListener;
+import io.github.johneliud.product_service.models.Product;
+import io.github.johneliud.product_service.repositories.ProductRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the whole application on a random port against in-process stand-ins: {@link InMemoryMongoTemplate}
+ * for MongoDB and {@code ProductRepository}, a mocked {@code KafkaTemplate}, and listener containers that
+ * never connect. Order events are handed to {@link OrderStatusChangedEventListener} in batches, as a
+ * container would after a poll. The traffic mix covers listings, search, product detail, creation and stock
+ * decrements over HTTP plus order-event batches; the report is printed, written to
+ * {@code target/load-test/<mode>.txt} and checked against {@link LoadBudgets}.
+ * <p>
+ * Tagged {@code load} and only run by the {@code load-test} Maven profile. Tune the run with
+ * {@code -Dloadtest.concurrency}, {@code -Dloadtest.duration}, {@code -Dloadtest.warm-up},
+ * {@code -Dloadtest.products} and {@code -Dloadtest.mongo.latency}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "spring.mongodb.uri=mongodb://localhost:27017/loadtest",
+        "jwt.secret=testSecretKeyForTestingPurposeOnly123456",
+        "jwt.expiration=86400000",
+        "spring.kafka.bootstrap-servers=localhost:9092",
+        "spring.kafka.consumer.group-id=product-service",
+        "spring.kafka.admin.auto-create=false",
+        "product.indexes.ensure-on-startup=false",
+        "product.indexes.verify=off",
+        "product.migration.price-decimal128.enabled=false",
+        "product.outbox.relay.enabled=false",
+        "product.dedupe.warm-up-on-startup=false",
+        // Per-request INFO logging would measure the console rather than the service
+        "logging.level.io.github.johneliud.product_service=WARN"
+})
+@Import(ProductServiceLoadTest.StandIns.class)
+abstract class ProductServiceLoadTest {
+    private static final String[] CATEGORIES = {"Electronics", "Home", "Garden", "Toys", "Books", "Sports"};
+    private static final String[] ADJECTIVES = {"wireless", "compact", "smart", "classic", "portable", "premium"};
+    private static final String[] NOUNS = {"speaker", "lamp", "kettle", "drone", "backpack", "headphones", "chair"};
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StandIns {
+        @Bean
+        InMemoryMongoTemplate mongoTemplate(@Value("${loadtest.mongo.latency:2ms}") Duration latency) {
+            return new InMemoryMongoTemplate(latency);
+        }
+    }
+
+    @MockitoBean
+    ConsumerFactory<String, byte[]> consumerFactory;
+
+    @MockitoBean
+    ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory;
+
+    @MockitoBean
+    KafkaTemplate<String, String> kafkaTemplate;
+
+    @MockitoBean
+    ProductRepository productRepository;
+
+    @Autowired
+    InMemoryMongoTemplate mongoTemplate;
+
+    @Autowired
+    OrderStatusChangedEventListener orderStatusChangedEventListener;
+
+    @Value("${local.server.port}")
+    int port;
+
+    @Value("${loadtest.concurrency:64}")
+    int concurrency;
+
+    @Value("${loadtest.duration:20s}")
+    Duration duration;
+
+    @Value("${loadtest.warm-up:5s}")
+    Duration warmUp;
+
+    @Value("${loadtest.products:2000}")
+    int productCount;
+
+    private final AtomicLong offsets = new AtomicLong();
+    private HttpClient client;
+    private List<String> productIds;
+
+    /** {@code platform} or {@code virtual}; names the report. */
+    abstract String mode();
+
+    @Test
+    void productTrafficStaysWithinBudgets() throws Exception {
+        mongoTemplate.bindRepository(productRepository);
+        seedProducts();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        LoadGenerator generator = new LoadGenerator(List.of(
+                new LoadGenerator.Operation("listing", 35, this::listing),
+                new LoadGenerator.Operation("search", 20, this::search),
+                new LoadGenerator.Operation("detail", 30, this::detail),
+                new LoadGenerator.Operation("create", 5, this::create),
+                new LoadGenerator.Operation("stock", 5, this::decrementStock),
+                new LoadGenerator.Operation("orders", 5, this::deliverOrders)));
+        LoadReport report = generator.run(concurrency, warmUp, duration);
+
+        String formatted = report.format(String.format("Load test, %s threads, %d clients", mode(), concurrency));
+        System.out.println(formatted);
+        Path output = Path.of("target", "load-test", mode() + ".txt");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, formatted);
+
+        assertThat(new LoadBudgets().violations(report)).as("load-test budget violations").isEmpty();
+    }
+
+    private void seedProducts() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            String name = pick(ADJECTIVES) + " " + pick(NOUNS) + " " + i;
+            products.add(new Product(new ObjectId().toHexString(), name, "A " + name + " for everyday use",
+                    BigDecimal.valueOf(random.nextInt(100, 50_000), 2), 1_000_000, "seller-" + (i % 50),
+                    pick(CATEGORIES), 0L, false));
+        }
+        mongoTemplate.seed(products);
+        productIds = mongoTemplate.productIds();
+    }
+
+    private boolean listing() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return get("/api/products?size=20&page=" + random.nextInt(5) + "&sortBy=price&sortDir="
+                + (random.nextBoolean() ? "asc" : "desc") + "&category=" + pick(CATEGORIES)
+                + "&availableOnly=" + random.nextBoolean());
+    }
+
+    private boolean search() throws IOException, InterruptedException {
+        String terms = pick(ADJECTIVES) + " " + pick(NOUNS);
+        return get("/api/products?size=20&search=" + URLEncoder.encode(terms, StandardCharsets.UTF_8));
+    }
+
+    private boolean detail() throws IOException, InterruptedException {
+        return get("/api/products/" + pick(productIds));
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        String body = """
+                {"name":"%s %s","description":"Created by the load test","price":19.99,"quantity":100,"category":"%s"}
+                """.formatted(pick(ADJECTIVES), pick(NOUNS), pick(CATEGORIES));
+        return send(HttpRequest.newBuilder(uri("/api/products"))
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", "seller-" + ThreadLocalRandom.current().nextInt(50))
+                .header("X-User-Role", "SELLER")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    private boolean decrementStock() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/internal/products/" + pick(productIds) + "/stock"))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}")));
+    }
+
+    /**
+     * One poll's worth of order-status-changed records, half of them DELIVERED, handed to the listener
+     * the way the batch container would.
+     */
+    private boolean deliverOrders() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String orderId = new ObjectId().toHexString();
+            StringBuilder items = new StringBuilder();
+            for (int item = random.nextInt(1, 4); item > 0; item--) {
+                items.append(items.isEmpty() ? "" : ",")
+                        .append("{\"productId\":\"").append(pick(productIds))
+                        .append("\",\"productName\":\"Product\",\"price\":19.99,\"quantity\":1}");
+            }
+            String status = random.nextBoolean() ? "DELIVERED" : "SHIPPED";
+            byte[] payload = ("{\"orderId\":\"" + orderId + "\",\"userId\":\"user-1\",\"sellerId\":\"seller-1\","
+                    + "\"oldStatus\":\"PENDING\",\"newStatus\":\"" + status + "\",\"items\":[" + items + "]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            records.add(new ConsumerRecord<>("order-status-changed", 0, offsets.getAndIncrement(),
+                    System.currentTimeMillis(), TimestampType.CREATE_TIME, orderId.length(), payload.length,
+                    orderId, payload, new RecordHeaders(), Optional.empty()));
+        }
+        orderStatusChangedEventListener.onOrderStatusChangedMessages(records);
+        return true;
+    }
+
+    private boolean get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private boolean send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() / 100 == 2;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static <T> T pick(T[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
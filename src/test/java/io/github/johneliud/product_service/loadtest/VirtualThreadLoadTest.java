@@ -0,0 +1,16 @@
+package io.github.johneliud.product_service.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The load mix with {@code spring.threads.virtual.enabled}; compare its report with
+ * {@link PlatformThreadLoadTest}'s for the same settings.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadLoadTest extends ProductServiceLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,243 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.client.result.UpdateResult;
+import io.github.johneliud.product_service.models.OutboxEvent;
+import io.github.johneliud.product_service.models.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(mongoTemplate, kafkaTemplate, JsonMapper.builder().build(), 10, Duration.ofMillis(10), Duration.ofSeconds(5),
+                Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private static OutboxEvent entry(String id, String productId, Instant createdAt) {
+        return new OutboxEvent(id, "product-deleted", productId, "{\"productId\":\"" + productId + "\"}",
+                createdAt, createdAt, "claim", 0);
+    }
+
+    private static boolean isSnapshotQuery(Query query) {
+        return query != null && (query.getQueryObject().containsKey("snapshotPending")
+                || query.getQueryObject().containsKey("snapshotClaim"));
+    }
+
+    private void stubSnapshots(Product... products) {
+        stubSnapshots(List.of(products), List.of(products));
+    }
+
+    /** {@code candidates} are found pending; {@code claimed} are what is left of them when read before sending. */
+    private void stubSnapshots(List<Product> candidates, List<Product> claimed) {
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.find(argThat(query -> query != null && query.getQueryObject().containsKey("snapshotPending")),
+                eq(Document.class), eq("products")))
+                .thenReturn(candidates.stream().map(product -> new Document("_id", product.getId())).toList());
+        if (!candidates.isEmpty()) {
+            when(mongoTemplate.find(argThat(query -> query != null && query.getQueryObject().containsKey("snapshotClaim")),
+                    eq(Product.class))).thenReturn(claimed);
+        }
+    }
+
+    private void stubClaim(OutboxEvent... entries) {
+        when(mongoTemplate.find(argThat(query -> query != null && !query.getQueryObject().containsKey("claim")
+                && query.getQueryObject().containsKey("lockedUntil")), eq(OutboxEvent.class)))
+                .thenReturn(List.of(entries));
+        when(mongoTemplate.find(argThat(query -> query != null && query.getQueryObject().containsKey("claim")),
+                eq(OutboxEvent.class))).thenReturn(List.of(entries));
+        when(mongoTemplate.estimatedCount(OutboxEvent.class)).thenReturn((long) entries.length);
+    }
+
+    @Test
+    void relayBatch_publishesClaimedEntriesAndRemovesAcknowledgedOnes() throws Exception {
+        Instant now = Instant.now();
+        stubSnapshots();
+        stubClaim(entry("o1", "p1", now), entry("o2", "p2", now));
+        when(mongoTemplate.find(argThat(query -> !isSnapshotQuery(query)), eq(Product.class))).thenReturn(List.of());
+        when(kafkaTemplate.send(eq("product-deleted"), any(String.class), any(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaTemplate.send(eq("product-snapshots"), any(String.class), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        int claimed = relay.relayBatch();
+
+        assertThat(claimed).isEqualTo(2);
+        verify(kafkaTemplate).send("product-deleted", "p1", "{\"productId\":\"p1\"}");
+        verify(kafkaTemplate).send("product-snapshots", "p1", null);
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(OutboxEvent.class));
+        assertThat(removed.getValue().getQueryObject().toJson()).contains("o1").doesNotContain("o2");
+        ArgumentCaptor<Query> retried = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(retried.capture(), argThat((Update update) -> update.getUpdateObject()
+                .containsKey("$inc")), eq(OutboxEvent.class));
+        assertThat(retried.getValue().getQueryObject().toJson()).contains("o2");
+        assertThat(meterRegistry.get("product.outbox.events").tag("outcome", "published").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.outbox.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.outbox.relay.lag").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.outbox.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void relayBatch_holdsBackDeletesOfProductsThatStillExist() throws Exception {
+        Instant now = Instant.now();
+        stubSnapshots();
+        stubClaim(entry("fresh", "p1", now), entry("stale", "p2", now.minus(Duration.ofMinutes(5))));
+        Product p1 = new Product();
+        p1.setId("p1");
+        Product p2 = new Product();
+        p2.setId("p2");
+        when(mongoTemplate.find(argThat(query -> !isSnapshotQuery(query)), eq(Product.class))).thenReturn(List.of(p1, p2));
+
+        relay.relayBatch();
+
+        verify(kafkaTemplate, never()).send(any(String.class), any(String.class), any(String.class));
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(OutboxEvent.class));
+        assertThat(removed.getValue().getQueryObject().toJson()).contains("stale").doesNotContain("fresh");
+        assertThat(meterRegistry.get("product.outbox.events").tag("outcome", "discarded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_publishesPendingSnapshotsAndClearsFlagAtPublishedVersion() throws Exception {
+        Product product = new Product("p1", "Lamp", "Desk lamp", new BigDecimal("19.90"), 3, "s1", "Home", 4L, true);
+        stubSnapshots(product);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+        when(kafkaTemplate.send(eq("product-snapshots"), eq("p1"), any(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("product-snapshots"), eq("p1"), payload.capture());
+        assertThat(payload.getValue()).contains("\"name\":\"Lamp\"", "\"quantity\":3").doesNotContain("version");
+        ArgumentCaptor<Query> cleared = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateOne(cleared.capture(), argThat((Update update) ->
+                Boolean.FALSE.equals(update.getUpdateObject().get("$set", Document.class).get("snapshotPending"))));
+        assertThat(cleared.getValue().getQueryObject()).isEqualTo(new Document("_id", "p1").append("version", 4L));
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).updateMulti(released.capture(), argThat((Update update) ->
+                update.getUpdateObject().get("$unset", Document.class).containsKey("snapshotClaim")));
+        assertThat(released.getValue().getQueryObject().toJson()).contains("p1", "snapshotClaim");
+        verify(bulkOperations).execute();
+        assertThat(meterRegistry.get("product.snapshots.events").tag("outcome", "published").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_leasesPendingSnapshotsBeforeReadingThem() throws Exception {
+        Product product = new Product("p1", "Lamp", "Desk lamp", new BigDecimal("19.90"), 3, "s1", "Home", 4L, true);
+        stubSnapshots(product);
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+        when(kafkaTemplate.send(eq("product-snapshots"), eq("p1"), any(String.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+
+        relay.relayBatch();
+
+        ArgumentCaptor<Query> leased = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> lease = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(leased.capture(), lease.capture(), eq(Document.class), eq("products"));
+        assertThat(lease.getValue().getUpdateObject().get("$set", Document.class)).containsKey("snapshotClaim");
+        Document leaseQuery = leased.getValue().getQueryObject();
+        assertThat(leaseQuery.get("_id", Document.class).get("$in", List.class)).containsExactly("p1");
+        assertThat(leaseQuery.get("snapshotLockedUntil", Document.class)).containsKey("$not");
+        verify(bulkOperations, never()).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).updateMulti(any(Query.class), any(Update.class));
+        assertThat(meterRegistry.get("product.snapshots.events").tag("outcome", "failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_snapshotLeaseLeavesVersionUnchanged() throws Exception {
+        Product product = new Product("p1", "Lamp", "Desk lamp", new BigDecimal("19.90"), 3, "s1", "Home", 4L, true);
+        stubSnapshots(List.of(product), List.of());
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        relay.relayBatch();
+
+        ArgumentCaptor<Update> lease = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), lease.capture(), eq(Document.class), eq("products"));
+        Document update = lease.getValue().getUpdateObject();
+        assertThat(update.get("$inc", new Document())).doesNotContainKey("version");
+        assertThat(update.get("$set", Document.class)).doesNotContainKey("version");
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Product.class));
+    }
+
+    @Test
+    void backfillSnapshots_flagsProductsWithoutTouchingVersion() {
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Document.class), eq("products")))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        relay.backfillSnapshots();
+
+        ArgumentCaptor<Update> flag = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), flag.capture(), eq(Document.class), eq("products"));
+        assertThat(flag.getValue().getUpdateObject()).doesNotContainKey("$inc");
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Product.class));
+    }
+
+    @Test
+    void relayBatch_skipsSnapshotsOfProductsDeletedSinceTheClaim() throws Exception {
+        Product product = new Product("p1", "Lamp", "Desk lamp", new BigDecimal("19.90"), 3, "s1", "Home", 4L, true);
+        stubSnapshots(List.of(product), List.of());
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        verify(kafkaTemplate, never()).send(eq("product-snapshots"), any(String.class), any(String.class));
+        verify(mongoTemplate, never()).bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+    }
+
+    @Test
+    void relayBatch_nothingToClaim_returnsZero() throws Exception {
+        stubSnapshots();
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class))).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+    }
+}
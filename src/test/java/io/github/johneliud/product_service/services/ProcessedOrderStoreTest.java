@@ -0,0 +1,130 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.ProcessedOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedOrderStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProcessedOrderStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProcessedOrderStore(mongoTemplate, 1_000, 0.001, 100, Duration.ofDays(7), meterRegistry);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("orders.dedupe.lookups").tag("result", result).counter().count();
+    }
+
+    @Test
+    void filterNew_beforeWarmUp_confirmsEveryIdAgainstStore() {
+        when(mongoTemplate.find(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(List.of(new ProcessedOrder("o1", Instant.now())));
+
+        assertThat(store.filterNew(List.of("o1", "o2", "o2"))).containsExactly("o2");
+        assertThat(lookups("replay_store")).isEqualTo(1);
+        assertThat(lookups("replay_memory")).isEqualTo(1);
+        assertThat(lookups("new")).isEqualTo(1);
+    }
+
+    @Test
+    void filterNew_afterMarkProcessed_rejectsReplayWithoutQuery() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedOrder.class)).thenReturn(bulkOperations);
+        when(bulkOperations.upsert(anyList())).thenReturn(bulkOperations);
+
+        store.markProcessed(List.of("o1"));
+
+        assertThat(store.filterNew(List.of("o1"))).isEmpty();
+        verify(bulkOperations).execute();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ProcessedOrder.class));
+        assertThat(lookups("replay_memory")).isEqualTo(1);
+    }
+
+    @Test
+    void filterNew_afterWarmUp_passesUnseenIdsWithoutQuery() {
+        when(mongoTemplate.stream(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(Stream.of(new ProcessedOrder("o1", Instant.now())));
+        store.warmUp();
+
+        assertThat(store.filterNew(List.of("o2", "o3"))).containsExactly("o2", "o3");
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ProcessedOrder.class));
+        assertThat(lookups("new")).isEqualTo(2);
+    }
+
+    @Test
+    void filterNew_afterWarmUp_confirmsBloomHitsAgainstStore() {
+        when(mongoTemplate.stream(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(Stream.of(new ProcessedOrder("o1", Instant.now())));
+        when(mongoTemplate.find(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(List.of(new ProcessedOrder("o1", Instant.now())));
+        store.warmUp();
+
+        assertThat(store.filterNew(List.of("o1"))).isEmpty();
+        assertThat(lookups("replay_store")).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.dedupe.store.lookups").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void warmUp_skipsRecordsPastRetention() {
+        when(mongoTemplate.stream(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(Stream.of(new ProcessedOrder("o1", Instant.now().minus(Duration.ofDays(8)))));
+        store.warmUp();
+
+        assertThat(store.filterNew(List.of("o1"))).containsExactly("o1");
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ProcessedOrder.class));
+    }
+
+    @Test
+    void generations_coverFullRetentionAcrossRotations() throws InterruptedException {
+        store = new ProcessedOrderStore(mongoTemplate, 1_000, 0.001, 100, Duration.ofMillis(400), meterRegistry);
+        when(mongoTemplate.stream(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(Stream.of(new ProcessedOrder("o0", Instant.now()), new ProcessedOrder("o1", Instant.now())));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProcessedOrder.class)).thenReturn(bulkOperations);
+        when(bulkOperations.upsert(anyList())).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(ProcessedOrder.class)))
+                .thenReturn(List.of(new ProcessedOrder("o0", Instant.now())));
+        store.warmUp();
+
+        // Past half the retention: o2 starts a new generation, and the warmed generation stays live
+        Thread.sleep(250);
+        store.markProcessed(List.of("o2"));
+        assertThat(store.filterNew(List.of("o0"))).isEmpty();
+        assertThat(lookups("replay_store")).isEqualTo(1);
+
+        // Past the warmed ids' retention: the next rotation drops their generation, so o1 no longer needs a query
+        Thread.sleep(250);
+        store.markProcessed(List.of("o3"));
+        assertThat(store.filterNew(List.of("o1"))).containsExactly("o1");
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(ProcessedOrder.class));
+    }
+}
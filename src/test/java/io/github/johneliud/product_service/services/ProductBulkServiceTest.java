@@ -0,0 +1,166 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.github.johneliud.product_service.dto.BulkProductResponse;
+import io.github.johneliud.product_service.dto.BulkProductUpdateRequest;
+import io.github.johneliud.product_service.dto.ProductSelection;
+import io.github.johneliud.product_service.event.ProductDeletedEvent;
+import io.github.johneliud.product_service.models.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductCountService productCountService;
+
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    private ProductBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        bulkService = new ProductBulkService(mongoTemplate, productOutbox, productCache, productCountService, 2);
+    }
+
+    private Product product(String id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private ArgumentCaptor<Query> stubSelection(Product... products) {
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Product.class))).thenReturn(List.of(products));
+        return captor;
+    }
+
+    @Test
+    void updateProducts_setsFieldsWithOwnershipInPredicate() {
+        ArgumentCaptor<Query> selection = stubSelection(product("p1"), product("p2"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        productCache.put(product("p1"));
+        BulkProductUpdateRequest request = new BulkProductUpdateRequest(
+                new ProductSelection(null, "Books", null, null),
+                new BulkProductUpdateRequest.Changes(new BigDecimal("9.99"), null, 5, null));
+
+        BulkProductResponse response = bulkService.updateProducts("seller1", request);
+
+        assertThat(selection.getValue().getQueryObject())
+                .isEqualTo(new Document("userId", "seller1").append("category", "Books"));
+        assertThat(selection.getValue().getLimit()).isEqualTo(3);
+        ArgumentCaptor<Query> target = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateMulti(target.capture(), update.capture(), eq(Product.class));
+        assertThat(target.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", new Document("$in", List.of("p1", "p2"))).append("userId", "seller1"));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("price", new BigDecimal("9.99"))
+                .containsEntry("quantity", 5);
+        assertThat(response.getModifiedCount()).isEqualTo(2);
+        assertThat(productCache.get("p1", id -> Optional.empty())).isEmpty();
+        verify(productCountService).invalidate();
+    }
+
+    @Test
+    void buildUpdate_priceChangePercent_usesRoundedPipeline() {
+        UpdateDefinition update = ProductBulkService.buildUpdate(
+                new BulkProductUpdateRequest.Changes(null, new BigDecimal("-10"), null, "$sale"));
+
+        assertThat(update).isInstanceOf(AggregationUpdate.class);
+        String pipeline = ((AggregationUpdate) update).toPipeline(
+                Aggregation.DEFAULT_CONTEXT).toString();
+        assertThat(pipeline).contains("$round", "$multiply", "$price", "0.90", "$literal");
+    }
+
+    @Test
+    void buildUpdate_priceChangePercent_clampsToMinimumPrice() {
+        UpdateDefinition update = ProductBulkService.buildUpdate(
+                new BulkProductUpdateRequest.Changes(null, new BigDecimal("-99.99"), null, null));
+
+        List<Document> pipeline = ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document price = pipeline.get(0).get("$set", Document.class).get("price", Document.class);
+        assertThat(price.getList("$max", Object.class))
+                .hasSize(2)
+                .element(1).isEqualTo(new Decimal128(new BigDecimal("0.01")));
+        assertThat(price.toJson()).contains("$round");
+    }
+
+    @Test
+    void buildUpdate_rejectsConflictingOrEmptyChanges() {
+        assertThatThrownBy(() -> ProductBulkService.buildUpdate(
+                new BulkProductUpdateRequest.Changes(BigDecimal.ONE, BigDecimal.TEN, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductBulkService.buildUpdate(new BulkProductUpdateRequest.Changes()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("At least one change is required");
+    }
+
+    @Test
+    void deleteProducts_removesOwnedProductsAndRecordsEvents() {
+        stubSelection(product("p1"), product("p2"));
+        when(mongoTemplate.remove(any(Query.class), eq(Product.class))).thenReturn(DeleteResult.acknowledged(2));
+        when(productOutbox.append(eq("product-deleted"), any())).thenReturn(List.of("o1", "o2"));
+
+        BulkProductResponse response = bulkService.deleteProducts("seller1",
+                new ProductSelection(List.of("p1", "p2", "other"), null, null, null));
+
+        ArgumentCaptor<Query> target = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(target.capture(), eq(Product.class));
+        assertThat(target.getValue().getQueryObject().get("userId")).isEqualTo("seller1");
+        verify(productOutbox).append("product-deleted", Map.of(
+                "p1", new ProductDeletedEvent("p1", "seller1"), "p2", new ProductDeletedEvent("p2", "seller1")));
+        verify(productOutbox, never()).discard(any());
+        assertThat(response.getModifiedCount()).isEqualTo(2);
+        assertThat(response.getProductIds()).containsExactly("p1", "p2");
+    }
+
+    @Test
+    void selection_tooLargeOrMissing_throwsException() {
+        stubSelection(product("p1"), product("p2"), product("p3"));
+
+        assertThatThrownBy(() -> bulkService.deleteProducts("seller1", new ProductSelection(null, "Books", null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Selection matches more than 2 products");
+        assertThatThrownBy(() -> bulkService.deleteProducts("seller1", new ProductSelection()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Select products by ids or category");
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Product.class));
+        verifyNoInteractions(productOutbox);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCountServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ProductCountService productCountService;
+
+    @BeforeEach
+    void setUp() {
+        productCountService = new ProductCountService(mongoTemplate, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void unfiltered_usesEstimatedCount() {
+        when(mongoTemplate.estimatedCount(Product.class)).thenReturn(42L);
+
+        long total = productCountService.count(new ProductFilter(null, null, null, null, false, null));
+
+        assertThat(total).isEqualTo(42L);
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void filtered_equivalentFiltersShareCachedCount() {
+        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(7L);
+
+        long first = productCountService.count(new ProductFilter(" Lamp ", new BigDecimal("10.0"), null, "Home", true, null));
+        long second = productCountService.count(new ProductFilter("lamp", new BigDecimal("10"), null, "home", true, null));
+
+        assertThat(first).isEqualTo(7L);
+        assertThat(second).isEqualTo(7L);
+        verify(mongoTemplate, times(1)).count(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void filtered_countsWithFilterQueryOnly() {
+        ProductFilter filter = new ProductFilter(null, new BigDecimal("10"), null, "books", false, null);
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(3L);
+
+        productCountService.count(filter);
+
+        verify(mongoTemplate).count(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getQueryObject())
+                .isEqualTo(ProductQueries.buildFilterQuery(filter).getQueryObject());
+        assertThat(captor.getValue().getQueryObject().toJson()).doesNotContain("_id");
+    }
+
+    @Test
+    void filtered_separatorsInValuesDoNotCollide() {
+        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(1L, 2L);
+
+        long first = productCountService.count(new ProductFilter("a|b", null, null, null, false, null));
+        long second = productCountService.count(new ProductFilter("a", null, null, "b", false, null));
+
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+        verify(mongoTemplate, times(2)).count(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void invalidate_forcesRecount() {
+        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(7L, 8L);
+        ProductFilter filter = new ProductFilter(null, null, null, "books", false, null);
+
+        productCountService.count(filter);
+        productCountService.invalidate();
+        long total = productCountService.count(filter);
+
+        assertThat(total).isEqualTo(8L);
+        verify(mongoTemplate, times(2)).count(any(Query.class), eq(Product.class));
+    }
+}
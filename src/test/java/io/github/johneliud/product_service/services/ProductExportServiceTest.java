@@ -0,0 +1,90 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ProductExportService exportService() {
+        return new ProductExportService(mongoTemplate, JsonMapper.builder().build(), 500);
+    }
+
+    private String run(String sellerId, ProductFileFormat format, String fields, Product... products)
+            throws Exception {
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(captor.capture(), eq(Product.class))).thenReturn(Stream.of(products));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService().export(sellerId, format, fields).writeTo(out);
+
+        Query query = captor.getValue();
+        assertThat(query.getSortObject().toJson()).contains("_id");
+        assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(500);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ndjson_writesOneProductPerLine() throws Exception {
+        String body = run(null, ProductFileFormat.NDJSON, null,
+                new Product("p1", "Lamp", "Desk lamp", new BigDecimal("19.90"), 3, "s1", "Home", 1L, null),
+                new Product("p2", "Mug", null, new BigDecimal("5"), 0, "s1", "Home", null, null));
+
+        assertThat(body.split("\n")).containsExactly(
+                "{\"id\":\"p1\",\"name\":\"Lamp\",\"description\":\"Desk lamp\",\"price\":19.90,\"quantity\":3,\"userId\":\"s1\",\"category\":\"Home\"}",
+                "{\"id\":\"p2\",\"name\":\"Mug\",\"price\":5,\"quantity\":0,\"userId\":\"s1\",\"category\":\"Home\"}");
+    }
+
+    @Test
+    void csv_writesHeaderAndQuotesSpecialCharacters() throws Exception {
+        String body = run("s1", ProductFileFormat.CSV, "name,description,price",
+                new Product("p1", "Lamp, large", "The \"best\"\nlamp", new BigDecimal("19.90"), 3, "s1", "Home", 2L, null));
+
+        assertThat(body).isEqualTo("id,name,description,price\r\n"
+                + "p1,\"Lamp, large\",\"The \"\"best\"\"\nlamp\",19.90\r\n");
+    }
+
+    @Test
+    void sellerExport_filtersBySeller() throws Exception {
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.stream(captor.capture(), eq(Product.class))).thenReturn(Stream.empty());
+
+        exportService().export("s1", ProductFileFormat.NDJSON, "summary").writeTo(new ByteArrayOutputStream());
+
+        verify(mongoTemplate).stream(captor.getValue(), Product.class);
+        assertThat(captor.getValue().getQueryObject().toJson()).contains("userId", "s1");
+        assertThat(captor.getValue().getFieldsObject().keySet()).containsExactlyInAnyOrder("name", "price", "quantity", "version");
+    }
+
+    @Test
+    void invalidParameters_rejectedBeforeStreaming() {
+        assertThatThrownBy(() -> ProductFileFormat.from("xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported file format: xml");
+        assertThatThrownBy(() -> exportService().export(null, ProductFileFormat.CSV, "bogus"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
+}
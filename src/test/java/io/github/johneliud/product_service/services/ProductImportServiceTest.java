@@ -0,0 +1,156 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.github.johneliud.product_service.models.Product;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private ProductCountService productCountService;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(mongoTemplate, objectMapper, validator, productCountService, 2);
+    }
+
+    private void stubBulkInsert() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    private List<JsonNode> run(ProductFileFormat format, String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importProducts("seller1", format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))
+                .writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines().map(objectMapper::readTree).toList();
+    }
+
+    @Test
+    void ndjson_validRowsInsertedInBatchesAndInvalidRowsReported() throws Exception {
+        stubBulkInsert();
+        String body = """
+                {"name":"Desk Lamp","description":"A bright desk lamp","price":19.9,"quantity":3}
+                {"name":"Mug","description":"A coffee mug","price":5,"quantity":1,"category":"Kitchen"}
+
+                {"name":"X","description":"short","price":0,"quantity":-1}
+                not json
+                {"name":"Kettle","description":"An electric kettle","price":30,"quantity":2}
+                """;
+
+        List<JsonNode> lines = run(ProductFileFormat.NDJSON, body);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> batches = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(batches.capture());
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(batches.getAllValues().get(0)).allSatisfy(product -> {
+            assertThat(product.getId()).isNotBlank();
+            assertThat(product.getUserId()).isEqualTo("seller1");
+        });
+
+        assertThat(lines).extracting(line -> line.path("status").asString(""))
+                .containsExactly("CREATED", "CREATED", "INVALID", "INVALID", "CREATED", "");
+        assertThat(lines.get(2).get("row").asLong()).isEqualTo(4);
+        assertThat(lines.get(2).get("errors").propertyNames()).contains("name", "description", "price", "quantity");
+        assertThat(lines.get(3).get("errors").get("row").asString()).startsWith("Malformed JSON");
+        JsonNode summary = lines.get(5).get("summary");
+        assertThat(summary.get("rows").asLong()).isEqualTo(5);
+        assertThat(summary.get("created").asLong()).isEqualTo(3);
+        assertThat(summary.get("invalid").asLong()).isEqualTo(2);
+        verify(productCountService).invalidate();
+    }
+
+    @Test
+    void csv_parsesQuotedFieldsAndReportsConversionErrors() throws Exception {
+        stubBulkInsert();
+        String body = "name,price,quantity,description,category\r\n"
+                + "\"Lamp, large\",19.90,3,\"A \"\"bright\"\"\nlamp\",Home\r\n"
+                + "Mug,cheap,1,A coffee mug,\r\n";
+
+        List<JsonNode> lines = run(ProductFileFormat.CSV, body);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Product>> batch = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(batch.capture());
+        Product lamp = batch.getValue().get(0);
+        assertThat(lamp.getName()).isEqualTo("Lamp, large");
+        assertThat(lamp.getDescription()).isEqualTo("A \"bright\"\nlamp");
+        assertThat(lamp.getPrice()).isEqualByComparingTo("19.90");
+        assertThat(lines.get(0).get("status").asString()).isEqualTo("INVALID");
+        assertThat(lines.get(0).get("row").asLong()).isEqualTo(2);
+        assertThat(lines.get(0).get("errors").get("price").asString()).isEqualTo("Price must be a number");
+        assertThat(lines.get(1).get("status").asString()).isEqualTo("CREATED");
+    }
+
+    @Test
+    void bulkWriteErrors_reportedAsFailedRows() throws Exception {
+        stubBulkInsert();
+        MongoBulkWriteException cause = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)),
+                null, new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("bulk failed", cause));
+        String body = """
+                {"name":"Desk Lamp","description":"A bright desk lamp","price":19.9,"quantity":3}
+                {"name":"Kettle","description":"An electric kettle","price":30,"quantity":2}
+                """;
+
+        List<JsonNode> lines = run(ProductFileFormat.NDJSON, body);
+
+        assertThat(lines.get(0).get("status").asString()).isEqualTo("CREATED");
+        assertThat(lines.get(1).get("status").asString()).isEqualTo("FAILED");
+        assertThat(lines.get(2).get("summary").get("failed").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void csv_unknownColumn_rejectedBeforeStreaming() {
+        assertThatThrownBy(() -> importService.importProducts("seller1", ProductFileFormat.CSV,
+                new ByteArrayInputStream("name,secret\n".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown CSV column: secret");
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.johneliud.product_service.services;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductIndexManagerTest {
+
+    @Test
+    void indexDefinitions_coverEverySortFieldWithAndWithoutSeller() {
+        List<Document> keys = ProductIndexManager.indexDefinitions().stream()
+                .map(IndexDefinition::getIndexKeys)
+                .toList();
+
+        for (String field : ProductQueries.KEYSET_SORT_FIELDS) {
+            assertThat(keys).contains(new Document(field, 1).append("_id", 1));
+            assertThat(keys).contains(new Document("userId", 1).append(field, 1).append("_id", 1));
+        }
+        assertThat(keys).hasSize(2 + 2 * ProductQueries.KEYSET_SORT_FIELDS.size());
+    }
+
+    @Test
+    void indexDefinitions_indexOnlyPendingSnapshots() {
+        Document pending = ProductIndexManager.indexDefinitions().stream()
+                .map(IndexDefinition::getIndexOptions)
+                .filter(options -> ProductIndexManager.SNAPSHOT_PENDING_INDEX_NAME.equals(options.get("name")))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(pending.get("partialFilterExpression", Document.class))
+                .isEqualTo(new Document("snapshotPending", true));
+    }
+
+    @Test
+    void planStages_walksNestedAndSlotBasedPlans() {
+        Document classic = new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "product_name_id")));
+        Document slotBased = new Document("queryPlan", new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "OR")
+                        .append("inputStages", List.of(new Document("stage", "COLLSCAN")))));
+
+        assertThat(ProductIndexManager.planStages(classic)).containsExactly("LIMIT", "FETCH", "IXSCAN");
+        assertThat(ProductIndexManager.planStages(slotBased)).containsExactly("SORT", "OR", "COLLSCAN");
+    }
+
+    @Test
+    void planProblems_flagsCollectionScansAndInMemorySorts() {
+        assertThat(ProductIndexManager.planProblems(List.of("LIMIT", "FETCH", "IXSCAN"), false)).isEmpty();
+        assertThat(ProductIndexManager.planProblems(List.of("SORT", "COLLSCAN"), false))
+                .containsExactly("COLLSCAN", "in-memory SORT");
+        assertThat(ProductIndexManager.planProblems(List.of("SORT", "TEXT_MATCH", "IXSCAN"), true)).isEmpty();
+    }
+
+    @Test
+    void canonicalShapes_onlyRelevanceSearchMaySortInMemory() {
+        assertThat(ProductIndexManager.canonicalShapes())
+                .filteredOn(ProductIndexManager.QueryShape::allowsInMemorySort)
+                .extracting(ProductIndexManager.QueryShape::name)
+                .containsExactly("search+relevance");
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.event.ProductDeletedEvent;
+import io.github.johneliud.product_service.models.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductOutboxTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void append_insertsOneEntryPerKeyWithJsonPayload() {
+        ProductOutbox outbox = new ProductOutbox(mongoTemplate, JsonMapper.builder().build(), Duration.ofSeconds(2));
+        ArgumentCaptor<Collection<OutboxEvent>> inserted = ArgumentCaptor.forClass(Collection.class);
+        when(mongoTemplate.insert(inserted.capture(), eq(OutboxEvent.class))).thenAnswer(invocation -> {
+            List<OutboxEvent> entries = new ArrayList<>(invocation.<Collection<OutboxEvent>>getArgument(0));
+            entries.forEach(entry -> entry.setId("o-" + entry.getKey()));
+            return entries;
+        });
+        Map<String, ProductDeletedEvent> events = new LinkedHashMap<>();
+        events.put("p1", new ProductDeletedEvent("p1", "s1"));
+        events.put("p2", new ProductDeletedEvent("p2", "s1"));
+
+        List<String> ids = outbox.append("product-deleted", events);
+
+        assertThat(ids).containsExactly("o-p1", "o-p2");
+        OutboxEvent first = inserted.getValue().iterator().next();
+        assertThat(first.getTopic()).isEqualTo("product-deleted");
+        assertThat(first.getPayload()).isEqualTo("{\"productId\":\"p1\",\"userId\":\"s1\"}");
+        assertThat(first.getLockedUntil()).isEqualTo(first.getCreatedAt().plusSeconds(2));
+    }
+
+    @Test
+    void emptyInput_doesNotTouchMongo() {
+        ProductOutbox outbox = new ProductOutbox(mongoTemplate, JsonMapper.builder().build(), Duration.ofSeconds(2));
+
+        assertThat(outbox.append("product-deleted", Map.of())).isEmpty();
+        outbox.discard(List.of());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.johneliud.product_service.services;
+
+import com.mongodb.bulk.BulkWriteResult;
+import io.github.johneliud.product_service.models.Product;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Test
+    void migrate_convertsStringPricesBatchByBatch() {
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products"))).thenReturn(
+                List.of(new Document("_id", "a").append("price", "10.50"),
+                        new Document("_id", "b").append("price", "n/a")),
+                List.of(new Document("_id", "c").append("price", " 3 ")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "products")).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()),
+                BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        long converted = new ProductPriceMigration(mongoTemplate, 2, Duration.ZERO).migrate();
+
+        assertThat(converted).isEqualTo(2);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+        assertThat(queries.getAllValues().get(0).getQueryObject())
+                .isEqualTo(new Document("_id", "a").append("price", "10.50"));
+        assertThat(updates.getAllValues()).extracting(update -> update.getUpdateObject().get("$set", Document.class).get("price"))
+                .containsExactly(new Decimal128(new BigDecimal("10.50")), new Decimal128(new BigDecimal("3")));
+
+        ArgumentCaptor<Query> batches = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(batches.capture(), eq(Document.class), eq("products"));
+        assertThat(batches.getAllValues().get(1).getQueryObject().get("_id")).isEqualTo(new Document("$gt", "b"));
+    }
+}
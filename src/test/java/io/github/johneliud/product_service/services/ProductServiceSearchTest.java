@@ -4,12 +4,14 @@ import io.github.johneliud.product_service.dto.PagedResponse;
 import io.github.johneliud.product_service.dto.ProductResponse;
 import io.github.johneliud.product_service.models.Product;
 import io.github.johneliud.product_service.repositories.ProductRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 
@@ -17,9 +19,11 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +35,9 @@ class ProductServiceSearchTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private ProductCountService productCountService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -47,7 +54,7 @@ class ProductServiceSearchTest {
     }
 
     private void stubMongoTemplate(List<Product> results) {
-        when(mongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn((long) results.size());
+        when(productCountService.count(any(ProductFilter.class))).thenReturn((long) results.size());
         when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(results);
     }
 
@@ -59,7 +66,7 @@ class ProductServiceSearchTest {
         stubMongoTemplate(List.of(p));
 
         PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
-                0, 10, null, null, null, "name", "asc", null, false, null);
+                0, 10, null, null, null, "name", "asc", null, false, null, null, true, null);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getId()).isEqualTo("p1");
@@ -67,17 +74,41 @@ class ProductServiceSearchTest {
     }
 
     @Test
-    void search_byKeyword_queryContainsOrOperator() {
+    void search_byKeyword_queryUsesTextIndex() {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getAllProductsPaged(0, 10, "bluetooth", null, null, "name", "asc", null, false, null);
+        productService.getAllProductsPaged(0, 10, "bluetooth", null, null, "name", "asc", null, false, null, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
-        assertThat(queryJson).contains("$or");
-        assertThat(queryJson).contains("name");
-        assertThat(queryJson).contains("description");
+        assertThat(queryJson).contains("$text");
+        assertThat(queryJson).contains("bluetooth");
+        assertThat(queryJson).doesNotContain("$regex");
+        assertThat(captor.getValue().getSortObject().toJson()).contains("name");
+    }
+
+    @Test
+    void search_withoutSortBy_sortsByRelevance() {
+        stubMongoTemplate(List.of());
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        productService.getAllProductsPaged(0, 10, "bluetooth", null, null, null, "asc", null, false, null, null, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getSortObject().toJson()).contains("textScore");
+    }
+
+    @Test
+    void search_withOtherFilters_textCriteriaStaysTopLevel() {
+        stubMongoTemplate(List.of());
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        productService.getAllProductsPaged(0, 10, "lamp", new BigDecimal("10"), null, null, "asc", "home", false, null, null, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getQueryObject().containsKey("$text")).isTrue();
+        assertThat(captor.getValue().getQueryObject().toJson()).contains("price", "category");
     }
 
     @Test
@@ -85,19 +116,30 @@ class ProductServiceSearchTest {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "electronics", false, null);
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "electronics", false, null, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
         assertThat(queryJson).contains("category");
     }
 
+    @Test
+    void filter_byCategory_matchesTrimmedLiteralLikeCountKey() {
+        stubMongoTemplate(List.of());
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "  Home.Garden ", false, null, null, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getQueryObject().toJson()).contains("\\Qhome.garden\\E");
+    }
+
     @Test
     void filter_byAvailabilityOnly_queryContainsQuantityGt() {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", null, true, null);
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", null, true, null, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
@@ -110,7 +152,7 @@ class ProductServiceSearchTest {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", null, false, "seller1");
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", null, false, "seller1", null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
@@ -123,7 +165,7 @@ class ProductServiceSearchTest {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "books", true, null);
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "books", true, null, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
@@ -131,6 +173,175 @@ class ProductServiceSearchTest {
         assertThat(queryJson).contains("quantity");
     }
 
+    // ── cursor pagination ─────────────────────────────────────────────────────
+
+    @Test
+    void offsetPage_withMoreResults_returnsNextCursorForLastItem() {
+        Product p = product("p1", "Phone", "A smartphone", "Electronics", 5);
+        Product p2 = product("p2", "Tablet", "A tablet", "Electronics", 5);
+        stubMongoTemplate(List.of(p, p2));
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 1, null, null, null, "price", "desc", null, false, null, null, true, null);
+
+        assertThat(result.isLast()).isFalse();
+        PageCursor cursor = PageCursor.decode(result.getNextCursor());
+        assertThat(cursor.getSortBy()).isEqualTo("price");
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(cursor.getValue()).isEqualTo(new BigDecimal("50.00"));
+        assertThat(cursor.getId()).isEqualTo("p1");
+    }
+
+    @Test
+    void cursorPage_queriesAfterCursorWithoutSkip() {
+        Product p1 = product("p1", "Lamp", "A desk lamp", "Home", 5);
+        Product p2 = product("p2", "Mug", "A coffee mug", "Home", 5);
+        stubMongoTemplate(List.of(p1, p2));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        String cursor = new PageCursor("name", Sort.Direction.ASC, "Kettle", "p0").encode();
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 1, null, null, null, "name", "asc", null, false, null, cursor, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        Query query = captor.getValue();
+        assertThat(query.getSkip()).isZero();
+        assertThat(query.getLimit()).isEqualTo(2);
+        assertThat(query.getQueryObject().toJson()).contains("$or", "$gt", "Kettle", "_id");
+        assertThat(query.getSortObject().toJson()).contains("name", "_id");
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isLast()).isFalse();
+        assertThat(PageCursor.decode(result.getNextCursor()).getValue()).isEqualTo("Lamp");
+    }
+
+    @Test
+    void cursorPage_totalCountsWholeFilterNotRowsAfterCursor() {
+        stubMongoTemplate(List.of(product("p1", "Lamp", "A desk lamp", "Home", 5)));
+        ArgumentCaptor<ProductFilter> captor = ArgumentCaptor.forClass(ProductFilter.class);
+        String cursor = new PageCursor("name", Sort.Direction.ASC, "Kettle", "p0").encode();
+
+        productService.getAllProductsPaged(0, 10, null, null, null, "name", "asc", "home", false, null, cursor, true, null);
+
+        verify(productCountService).count(captor.capture());
+        assertThat(captor.getValue()).isEqualTo(new ProductFilter(null, null, null, "home", false, null));
+    }
+
+    @Test
+    void cursorPage_descendingWithNullValue_onlyMatchesRemainingNulls() {
+        stubMongoTemplate(List.of());
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        String cursor = new PageCursor("category", Sort.Direction.DESC, null, "p9").encode();
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 10, null, null, null, "category", "desc", null, false, null, cursor, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        String queryJson = captor.getValue().getQueryObject().toJson();
+        assertThat(queryJson).contains("\"category\": null", "$lt");
+        assertThat(result.isLast()).isTrue();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorPage_sortMismatch_throwsException() {
+        String cursor = new PageCursor("name", Sort.Direction.ASC, "Kettle", "p0").encode();
+
+        assertThatThrownBy(() -> productService.getAllProductsPaged(
+                0, 10, null, null, null, "price", "asc", null, false, null, cursor, true, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cursor does not match");
+    }
+
+    @Test
+    void cursorPage_relevanceSearch_throwsException() {
+        String cursor = new PageCursor("name", Sort.Direction.ASC, "Kettle", "p0").encode();
+
+        assertThatThrownBy(() -> productService.getAllProductsPaged(
+                0, 10, "kettle", null, null, null, "asc", null, false, null, cursor, true, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("relevance");
+    }
+
+    @Test
+    void includeTotalFalse_skipsCountAndOverFetchesOne() {
+        Product p1 = product("p1", "Lamp", "A desk lamp", "Home", 5);
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(p1));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                2, 10, null, null, null, "name", "asc", "home", false, null, null, false, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getSkip()).isEqualTo(20);
+        assertThat(captor.getValue().getLimit()).isEqualTo(11);
+        verifyNoInteractions(productCountService);
+        assertThat(result.getTotalElements()).isEqualTo(-1);
+        assertThat(result.getTotalPages()).isEqualTo(-1);
+        assertThat(result.isLast()).isTrue();
+    }
+
+    @Test
+    void cursor_malformed_throwsException() {
+        assertThatThrownBy(() -> PageCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    // ── field projection ──────────────────────────────────────────────────────
+
+    @Test
+    void defaultFields_projectSummaryView() {
+        stubMongoTemplate(List.of(product("p1", "Lamp", "A desk lamp", "Home", 5)));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 10, null, null, null, "name", "asc", null, false, null, null, true, null);
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getFieldsObject().keySet()).containsExactlyInAnyOrder("name", "price", "quantity", "version");
+        ProductResponse response = result.getContent().get(0);
+        assertThat(response.getName()).isEqualTo("Lamp");
+        assertThat(response.getDescription()).isNull();
+        assertThat(response.getUserId()).isNull();
+    }
+
+    @Test
+    void explicitFields_fetchSortFieldForCursorButReturnOnlySelected() {
+        stubMongoTemplate(List.of(product("p1", "Lamp", "A desk lamp", "Home", 5),
+                product("p2", "Mug", "A mug", "Home", 5)));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 1, null, null, null, "price", "asc", null, false, null, null, true, "name, category");
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getFieldsObject().keySet()).containsExactlyInAnyOrder("name", "category", "price", "version");
+        assertThat(result.getContent().get(0).getPrice()).isNull();
+        assertThat(result.getContent().get(0).getCategory()).isEqualTo("Home");
+        assertThat(PageCursor.decode(result.getNextCursor()).getValue()).isEqualTo(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void fullView_fetchesWholeDocumentExceptStockBatches() {
+        stubMongoTemplate(List.of(product("p1", "Lamp", "A desk lamp", "Home", 5)));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        PagedResponse<ProductResponse> result = productService.getAllProductsPaged(
+                0, 10, null, null, null, "name", "asc", null, false, null, null, true, "full");
+
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getFieldsObject()).isEqualTo(new Document("stockBatches", 0));
+        assertThat(result.getContent().get(0).getDescription()).isEqualTo("A desk lamp");
+    }
+
+    @Test
+    void unknownField_throwsException() {
+        assertThatThrownBy(() -> productService.getAllProductsPaged(
+                0, 10, null, null, null, "name", "asc", null, false, null, null, true, "name,secret"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: secret");
+    }
+
     // ── getSellerProductsPaged ────────────────────────────────────────────────
 
     @Test
@@ -138,7 +349,7 @@ class ProductServiceSearchTest {
         stubMongoTemplate(List.of());
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
-        productService.getSellerProductsPaged("seller1", 0, 10, null, null, null, "name", "asc", "books", false);
+        productService.getSellerProductsPaged("seller1", 0, 10, null, null, null, "name", "asc", "books", false, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         String queryJson = captor.getValue().getQueryObject().toJson();
@@ -154,7 +365,7 @@ class ProductServiceSearchTest {
         ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
 
         PagedResponse<ProductResponse> result = productService.getSellerProductsPaged(
-                "seller1", 0, 10, null, null, null, "name", "asc", null, false);
+                "seller1", 0, 10, null, null, null, "name", "asc", null, false, null, true, null);
 
         verify(mongoTemplate).find(captor.capture(), eq(Product.class));
         assertThat(result.getContent()).hasSize(1);
@@ -1,19 +1,41 @@
 package io.github.johneliud.product_service.services;
 
+import io.github.johneliud.product_service.dto.BatchStockUpdateRequest;
+import io.github.johneliud.product_service.dto.BatchStockUpdateResponse;
+import io.github.johneliud.product_service.dto.ProductBatchResponse;
 import io.github.johneliud.product_service.dto.ProductRequest;
 import io.github.johneliud.product_service.dto.ProductResponse;
+import io.github.johneliud.product_service.event.ProductDeletedEvent;
+import io.github.johneliud.product_service.exception.PreconditionFailedException;
 import io.github.johneliud.product_service.models.Product;
 import io.github.johneliud.product_service.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +44,8 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ProductServiceTest {
+    private static final Pattern UUID_PATTERN =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
 
     @Mock
     private ProductRepository productRepository;
@@ -29,6 +53,15 @@ class ProductServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private ProductCountService productCountService;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductService productService;
 
@@ -69,18 +102,30 @@ class ProductServiceTest {
 
     @Test
     void getProductById_Success() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.of(testProduct));
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.of(testProduct));
 
         ProductResponse response = productService.getProductById("prod123");
 
         assertNotNull(response);
         assertEquals("prod123", response.getId());
-        verify(productRepository).findById("prod123");
+        verify(productRepository).findProductById("prod123");
+    }
+
+    @Test
+    void getProductById_SecondCall_ServedFromCache() {
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.of(testProduct));
+
+        productService.getProductById("prod123");
+        ProductResponse response = productService.getProductById("prod123");
+
+        assertEquals("prod123", response.getId());
+        verify(productRepository, times(1)).findProductById("prod123");
+        assertEquals(1, productCache.stats().hitCount());
     }
 
     @Test
     void getProductById_NotFound_ThrowsException() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.empty());
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.getProductById("prod123");
@@ -90,60 +135,123 @@ class ProductServiceTest {
 
     @Test
     void updateProduct_Success() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(testProduct);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(testProduct);
 
-        ProductResponse response = productService.updateProduct("prod123", testRequest, "seller123");
+        ProductResponse response = productService.updateProduct("prod123", testRequest, "seller123", null);
 
         assertNotNull(response);
         assertEquals("prod123", response.getId());
-        verify(productRepository).findById("prod123");
-        verify(productRepository).save(any(Product.class));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Product.class));
+        assertEquals(new Document("_id", "prod123").append("userId", "seller123"), query.getValue().getQueryObject());
+        assertEquals(new Document("stockBatches", 0), query.getValue().getFieldsObject());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals("Test Product", set.get("name"));
+        assertFalse(set.containsKey("userId"));
+        assertEquals(true, set.get("snapshotPending"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("version"));
+        verify(productRepository, never()).findProductById(any());
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
     void updateProduct_WrongOwner_ThrowsException() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.of(testProduct));
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.of(testProduct));
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            productService.updateProduct("prod123", testRequest, "wrongSeller");
+            productService.updateProduct("prod123", testRequest, "wrongSeller", null);
         });
         assertEquals("You do not have permission to update this product", exception.getMessage());
     }
 
     @Test
     void updateProduct_NotFound_ThrowsException() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.empty());
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
-            productService.updateProduct("prod123", testRequest, "seller123");
+            productService.updateProduct("prod123", testRequest, "seller123", null);
         });
         assertEquals("Product not found", exception.getMessage());
     }
 
-//    @Test
-//    void deleteProduct_Success() {
-//        when(productRepository.findById("prod123")).thenReturn(Optional.of(testProduct));
-//
-//        productService.deleteProduct("prod123", "seller123");
-//
-//        verify(productRepository).findById("prod123");
-//        verify(productRepository).deleteById("prod123");
-//    }
+    @Test
+    void updateProduct_WithExpectedVersion_AddsVersionToPredicate() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(testProduct);
+
+        productService.updateProduct("prod123", testRequest, "seller123", 4L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class));
+        assertEquals(4L, query.getValue().getQueryObject().get("version"));
+    }
+
+    @Test
+    void updateProduct_StaleVersion_ThrowsPreconditionFailed() {
+        testProduct.setVersion(5L);
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.of(testProduct));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProduct("prod123", testRequest, "seller123", 4L));
+        verify(productCache, never()).put(any());
+    }
+
+    @Test
+    void getProductsByIds_ServesCachedProductsAndLoadsTheRestInOneQuery() {
+        productCache.put(testProduct);
+        Product other = new Product();
+        other.setId("prod456");
+        when(productRepository.findProductsByIdIn(Set.of("prod456", "missing"))).thenReturn(List.of(other));
+
+        ProductBatchResponse response = productService.getProductsByIds(
+                List.of("missing", "prod456", "prod123", "prod456"));
+
+        assertEquals(List.of("prod456", "prod123"), response.getProducts().stream().map(ProductResponse::getId).toList());
+        assertEquals(List.of("missing"), response.getMissingIds());
+        verify(productRepository, never()).findProductById(any());
+
+        productService.getProductsByIds(List.of("prod456"));
+        verify(productRepository).findAllById(any());
+    }
+
+    @Test
+    void deleteProduct_Success() {
+        when(productOutbox.append(eq("product-deleted"), any())).thenReturn(List.of("outbox1"));
+        when(mongoTemplate.remove(any(Query.class), eq(Product.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        productService.deleteProduct("prod123", "seller123");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(Product.class));
+        assertEquals(new Document("_id", "prod123").append("userId", "seller123"), query.getValue().getQueryObject());
+        assertEquals(new Document("stockBatches", 0), query.getValue().getFieldsObject());
+        verify(productRepository, never()).existsById(any());
+        verify(productCountService).invalidate();
+        verify(productOutbox).append("product-deleted", Map.of("prod123", new ProductDeletedEvent("prod123", "seller123")));
+        verify(productOutbox, never()).discard(any());
+    }
 
     @Test
     void deleteProduct_WrongOwner_ThrowsException() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.of(testProduct));
+        when(productOutbox.append(eq("product-deleted"), any())).thenReturn(List.of("outbox1"));
+        when(mongoTemplate.remove(any(Query.class), eq(Product.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(productRepository.existsById("prod123")).thenReturn(true);
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.deleteProduct("prod123", "wrongSeller");
         });
         assertEquals("You do not have permission to delete this product", exception.getMessage());
+        verify(productOutbox).discard(List.of("outbox1"));
     }
 
     @Test
     void deleteProduct_NotFound_ThrowsException() {
-        when(productRepository.findById("prod123")).thenReturn(Optional.empty());
+        when(mongoTemplate.remove(any(Query.class), eq(Product.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(productRepository.existsById("prod123")).thenReturn(false);
 
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.deleteProduct("prod123", "seller123");
@@ -159,6 +267,36 @@ class ProductServiceTest {
         verify(mongoTemplate).findAndModify(any(), any(), eq(Product.class));
     }
 
+    @Test
+    void decrementStock_StockRemains_KeepsCachedCounts() {
+        when(mongoTemplate.findAndModify(any(), any(), eq(Product.class))).thenReturn(testProduct);
+
+        productService.decrementStock("prod123", 3);
+
+        verify(productCountService, never()).invalidate();
+    }
+
+    @Test
+    void decrementStock_SellsOut_InvalidatesCachedCounts() {
+        when(mongoTemplate.findAndModify(any(), any(), eq(Product.class))).thenReturn(testProduct);
+
+        productService.decrementStock("prod123", 10);
+
+        verify(productCountService).invalidate();
+    }
+
+    @Test
+    void decrementStock_Success_EvictsCachedProduct() {
+        when(productRepository.findProductById("prod123")).thenReturn(Optional.of(testProduct));
+        when(mongoTemplate.findAndModify(any(), any(), eq(Product.class))).thenReturn(testProduct);
+
+        productService.getProductById("prod123");
+        productService.decrementStock("prod123", 3);
+        productService.getProductById("prod123");
+
+        verify(productRepository, times(2)).findById("prod123");
+    }
+
     @Test
     void decrementStock_InsufficientStock_ThrowsException() {
         when(mongoTemplate.findAndModify(any(), any(), eq(Product.class))).thenReturn(null);
@@ -178,4 +316,81 @@ class ProductServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Product not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    void decrementStockBatch_AllMatched_SingleBulkWrite() {
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        BatchStockUpdateResponse response = productService.decrementStockBatch(List.of(
+                new BatchStockUpdateRequest.Item("prod1", 2),
+                new BatchStockUpdateRequest.Item("prod2", 1),
+                new BatchStockUpdateRequest.Item("prod1", 3)), false);
+
+        assertEquals(2, response.getAppliedCount());
+        assertEquals(2, response.getResults().size());
+        assertEquals(5, response.getResults().get(0).getQuantity());
+        assertTrue(response.getResults().stream()
+                .allMatch(r -> r.getStatus() == BatchStockUpdateResponse.Status.APPLIED));
+        verify(bulkOps, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), any());
+        verify(productCountService, never()).invalidate();
+    }
+
+    @Test
+    void decrementStockBatch_SellsOut_InvalidatesCachedCounts() {
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+
+        productService.decrementStockBatch(List.of(new BatchStockUpdateRequest.Item("prod1", 2)), false);
+
+        verify(productCountService).invalidate();
+    }
+
+    @Test
+    void decrementStockBatch_WriteFails_EvictsRequestedProductsAndRethrows() {
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenThrow(new DataAccessResourceFailureException("connection reset"));
+        productCache.put(testProduct);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> productService.decrementStockBatch(List.of(
+                new BatchStockUpdateRequest.Item("prod123", 1),
+                new BatchStockUpdateRequest.Item("prod2", 1)), false));
+
+        assertTrue(productCache.getIfPresent("prod123").isEmpty());
+        verify(productCountService).invalidate();
+    }
+
+    @Test
+    void decrementStockBatch_PartialMatch_ClassifiesEachProduct() {
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Product.class)).thenReturn(bulkOps);
+        when(bulkOps.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+
+        // Answer the follow-up read with the batch ID the bulk write tagged prod1 with
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products"))).thenAnswer(invocation -> {
+            verify(bulkOps, times(3)).updateOne(any(Query.class), updateCaptor.capture());
+            Matcher batchId = UUID_PATTERN.matcher(updateCaptor.getAllValues().get(0).toString());
+            assertTrue(batchId.find());
+            return List.of(
+                    new Document("_id", "prod1").append(ProductService.STOCK_BATCHES_FIELD, List.of(batchId.group())),
+                    new Document("_id", "prod2").append("quantity", 0));
+        });
+
+        BatchStockUpdateResponse response = productService.decrementStockBatch(List.of(
+                new BatchStockUpdateRequest.Item("prod1", 2),
+                new BatchStockUpdateRequest.Item("prod2", 1),
+                new BatchStockUpdateRequest.Item("prod3", 1)), true);
+
+        assertEquals(1, response.getAppliedCount());
+        assertEquals(BatchStockUpdateResponse.Status.APPLIED, response.getResults().get(0).getStatus());
+        assertEquals(BatchStockUpdateResponse.Status.INSUFFICIENT_STOCK, response.getResults().get(1).getStatus());
+        assertEquals(BatchStockUpdateResponse.Status.NOT_FOUND, response.getResults().get(2).getStatus());
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.johneliud.product_service.services;
+
+import io.github.johneliud.product_service.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    private ProductCountService productCountService;
+    private ReactiveProductService reactiveProductService;
+
+    @BeforeEach
+    void setUp() {
+        productCountService = new ProductCountService(mongoTemplate, 100, Duration.ofMinutes(1));
+        reactiveProductService = new ReactiveProductService(reactiveMongoTemplate, productCache, productCountService);
+    }
+
+    private Product product(String id, String name) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName(name);
+        p.setPrice(new BigDecimal("50.00"));
+        p.setQuantity(5);
+        p.setUserId("seller1");
+        p.setCategory("Electronics");
+        return p;
+    }
+
+    private ProductFilter filter(String search) {
+        return new ProductFilter(search, null, null, null, false, null);
+    }
+
+    @Test
+    void paged_buildsSameQueryAsBlockingPath() {
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(Flux.empty());
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        StepVerifier.create(reactiveProductService.getProductsPaged(
+                        filter("bluetooth"), 0, 10, null, "asc", null, false, null))
+                .assertNext(page -> assertThat(page.getTotalElements()).isEqualTo(ProductService.UNKNOWN_TOTAL))
+                .verifyComplete();
+
+        verify(reactiveMongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue()).isInstanceOf(TextQuery.class);
+        assertThat(captor.getValue().getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    void paged_extraProductSetsNextCursor() {
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(Flux.just(product("p1", "A"), product("p2", "B"), product("p3", "C")));
+        when(reactiveMongoTemplate.estimatedCount(Product.class)).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(reactiveProductService.getProductsPaged(
+                        filter(null), 0, 2, "name", "asc", null, true, null))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).extracting("id").containsExactly("p1", "p2");
+                    assertThat(page.isLast()).isFalse();
+                    assertThat(page.getNextCursor()).isNotNull();
+                    assertThat(page.getTotalPages()).isEqualTo(2);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void paged_filteredCountIsCachedAndShared() {
+        ProductFilter filter = new ProductFilter(null, null, null, "Home", false, null);
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(Flux.empty());
+        when(reactiveMongoTemplate.count(any(Query.class), eq(Product.class))).thenReturn(Mono.just(7L));
+
+        StepVerifier.create(reactiveProductService.getProductsPaged(filter, 0, 10, null, "asc", null, true, null))
+                .assertNext(page -> assertThat(page.getTotalElements()).isEqualTo(7L))
+                .verifyComplete();
+
+        assertThat(productCountService.cached(filter)).isEqualTo(7L);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void paged_invalidCursorFailsWithoutQuerying() {
+        StepVerifier.create(reactiveProductService.getProductsPaged(
+                        filter("lamp"), 0, 10, null, "asc", "not-a-cursor", true, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(reactiveMongoTemplate);
+    }
+
+    @Test
+    void stream_limitsQueryToPageSize() {
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(Flux.just(product("p1", "A"), product("p2", "B")));
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        StepVerifier.create(reactiveProductService.streamProducts(filter(null), 0, 2, "name", "asc", null, "full"))
+                .assertNext(response -> assertThat(response.getCategory()).isEqualTo("Electronics"))
+                .assertNext(response -> assertThat(response.getId()).isEqualTo("p2"))
+                .verifyComplete();
+
+        verify(reactiveMongoTemplate).find(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue().getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void byId_cachedProductSkipsMongo() {
+        when(productCache.getIfPresent("p1")).thenReturn(Optional.of(product("p1", "Phone")));
+
+        StepVerifier.create(reactiveProductService.getProductById("p1"))
+                .assertNext(response -> assertThat(response.getName()).isEqualTo("Phone"))
+                .verifyComplete();
+
+        verify(reactiveMongoTemplate, never()).findOne(any(Query.class), eq(Product.class));
+    }
+
+    @Test
+    void byId_missingProductFails() {
+        when(productCache.getIfPresent("p9")).thenReturn(Optional.empty());
+        when(reactiveMongoTemplate.findOne(any(Query.class), eq(Product.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(reactiveProductService.getProductById("p9"))
+                .expectErrorMessage("Product not found")
+                .verify();
+    }
+}